@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Индекс занятости вещей: для каждой вещи дерево интервалов ожидающих и подтверждённых бронирований,
+ * которые ещё не завершились. Дерево вещи загружается из базы при первом обращении и дальше
+ * обновляется при создании, подтверждении и отклонении бронирований. Последней линией защиты
+ * остаётся ограничение исключения bookings_no_overlap в PostgreSQL.
+ * <p>
+ * Загрузка идёт без блокировок, готовое дерево ставится в карту через putIfAbsent: из двух одновременных
+ * загрузок остаётся первая. Изменения после коммита применяются к дереву, которое в карте сейчас, поэтому
+ * загрузка, начатая до коммита, не перезапишет изменение. {@link #prune()} убирает завершившиеся интервалы
+ * и выбрасывает опустевшие деревья; выброшенное дерево помечается, и операции, успевшие его получить,
+ * берут из карты новое.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingAvailabilityIndex {
+    public static final List<Status> BLOCKING_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        return withTimeline(itemId, timeline -> !timeline.tree.overlapsAny(start, end));
+    }
+
+    public void reserve(Booking booking) {
+        long itemId = booking.getItem().getId();
+        BookingInterval interval = BookingInterval.of(booking);
+        withTimeline(itemId, timeline -> {
+            if (timeline.tree.overlapsAny(interval.start(), interval.end())) {
+                throw new ConflictException("Даты начала и завершения аренды пересекаются с уже существующими.");
+            }
+            timeline.add(interval);
+            return interval;
+        });
+        TransactionCallbacks.afterRollback(() -> withTimeline(itemId,
+                timeline -> timeline.remove(interval.bookingId())));
+    }
+
+    public void changeStatus(Booking booking) {
+        long itemId = booking.getItem().getId();
+        BookingInterval interval = BookingInterval.of(booking);
+        TransactionCallbacks.afterCommit(() -> withTimeline(itemId, timeline -> {
+            timeline.remove(interval.bookingId());
+            if (BLOCKING_STATUSES.contains(interval.status())) {
+                timeline.add(interval);
+            }
+            return interval;
+        }));
+    }
+
+    public void release(long itemId, long bookingId) {
+        TransactionCallbacks.afterCommit(() -> withTimeline(itemId, timeline -> timeline.remove(bookingId)));
+    }
+
+    public List<BookingInterval> busy(long itemId, LocalDateTime from, LocalDateTime to) {
+        return withTimeline(itemId, timeline -> timeline.tree.overlapping(from, to));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.availability.prune-interval:PT1H}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        timelines.forEach((itemId, timeline) -> {
+            synchronized (timeline) {
+                timeline.tree.endedBy(now).forEach(interval -> timeline.remove(interval.bookingId()));
+                if (timeline.tree.size() == 0) {
+                    timeline.retired = true;
+                    timelines.remove(itemId, timeline);
+                }
+            }
+        });
+    }
+
+    int size() {
+        return timelines.size();
+    }
+
+    private <T> T withTimeline(long itemId, Function<Timeline, T> action) {
+        while (true) {
+            Timeline timeline = timeline(itemId);
+            synchronized (timeline) {
+                if (!timeline.retired) {
+                    return action.apply(timeline);
+                }
+            }
+        }
+    }
+
+    private Timeline timeline(long itemId) {
+        Timeline timeline = timelines.get(itemId);
+        if (timeline != null) {
+            return timeline;
+        }
+        Timeline loaded = new Timeline();
+        bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId, BLOCKING_STATUSES, LocalDateTime.now())
+                .forEach(booking -> loaded.add(BookingInterval.of(booking)));
+        Timeline installed = timelines.putIfAbsent(itemId, loaded);
+        return installed != null ? installed : loaded;
+    }
+
+    private static final class Timeline {
+        private final IntervalTree tree = new IntervalTree();
+        private final Map<Long, BookingInterval> byBookingId = new HashMap<>();
+        private boolean retired;
+
+        private synchronized BookingInterval add(BookingInterval interval) {
+            if (byBookingId.putIfAbsent(interval.bookingId(), interval) == null) {
+                tree.insert(interval);
+            }
+            return interval;
+        }
+
+        private synchronized BookingInterval remove(long bookingId) {
+            BookingInterval interval = byBookingId.remove(bookingId);
+            if (interval != null) {
+                tree.remove(interval);
+            }
+            return interval;
+        }
+    }
+}
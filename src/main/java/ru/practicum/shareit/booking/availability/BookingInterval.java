@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.availability;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+public record BookingInterval(long bookingId, LocalDateTime start, LocalDateTime end, Status status) {
+    public static BookingInterval of(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus());
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && from.isBefore(end);
+    }
+}
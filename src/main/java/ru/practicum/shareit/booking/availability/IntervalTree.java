@@ -0,0 +1,203 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * AVL-дерево интервалов бронирований, упорядоченное по (start, bookingId), где каждый узел
+ * хранит максимальный конец интервала в своём поддереве. Поиск пересечения выполняется за O(log n),
+ * перечисление пересечений с окном - за O(log n + k). Интервалы полуоткрытые: [start, end).
+ * Класс не потокобезопасен.
+ */
+public class IntervalTree {
+    private static final Comparator<BookingInterval> ORDER = Comparator
+            .comparing(BookingInterval::start)
+            .thenComparingLong(BookingInterval::bookingId);
+
+    private Node root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    int height() {
+        return height(root);
+    }
+
+    public void insert(BookingInterval interval) {
+        root = insert(root, interval);
+        size++;
+    }
+
+    public void remove(BookingInterval interval) {
+        int before = size;
+        root = remove(root, interval);
+        if (before == size) {
+            throw new IllegalArgumentException("Интервал отсутствует в дереве: " + interval);
+        }
+    }
+
+    public boolean overlapsAny(LocalDateTime from, LocalDateTime to) {
+        Node node = root;
+        while (node != null) {
+            if (node.interval.overlaps(from, to)) {
+                return true;
+            }
+            node = node.left != null && node.left.maxEnd.isAfter(from) ? node.left : node.right;
+        }
+        return false;
+    }
+
+    public List<BookingInterval> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<BookingInterval> found = new ArrayList<>();
+        collect(root, from, to, found);
+        return found;
+    }
+
+    public List<BookingInterval> endedBy(LocalDateTime time) {
+        List<BookingInterval> ended = new ArrayList<>();
+        collectEnded(root, time, ended);
+        return ended;
+    }
+
+    private static void collect(Node node, LocalDateTime from, LocalDateTime to, List<BookingInterval> found) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collect(node.left, from, to, found);
+        if (!node.interval.start().isBefore(to)) {
+            return;
+        }
+        if (node.interval.overlaps(from, to)) {
+            found.add(node.interval);
+        }
+        collect(node.right, from, to, found);
+    }
+
+    private static void collectEnded(Node node, LocalDateTime time, List<BookingInterval> ended) {
+        if (node == null) {
+            return;
+        }
+        collectEnded(node.left, time, ended);
+        if (!node.interval.start().isBefore(time)) {
+            return;
+        }
+        if (!node.interval.end().isAfter(time)) {
+            ended.add(node.interval);
+        }
+        collectEnded(node.right, time, ended);
+    }
+
+    private static Node insert(Node node, BookingInterval interval) {
+        if (node == null) {
+            return new Node(interval);
+        }
+        if (ORDER.compare(interval, node.interval) < 0) {
+            node.left = insert(node.left, interval);
+        } else {
+            node.right = insert(node.right, interval);
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, BookingInterval interval) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = ORDER.compare(interval, node.interval);
+        if (cmp < 0) {
+            node.left = remove(node.left, interval);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, interval);
+        } else {
+            size--;
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.interval = successor.interval;
+            node.right = removeMin(node.right);
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.interval.end();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+        private BookingInterval interval;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+        private int height;
+
+        private Node(BookingInterval interval) {
+            this.interval = interval;
+            this.maxEnd = interval.end();
+            this.height = 1;
+        }
+    }
+}
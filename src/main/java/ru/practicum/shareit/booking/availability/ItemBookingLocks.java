@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.availability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые блокировки по id вещи для создания бронирований. Фиксированный массив замков
+ * ограничивает память независимо от числа вещей; разные вещи могут попасть на один замок,
+ * что лишь сериализует их, но не нарушает корректность. Замок берётся до проверки пересечений
+ * и отпускается после завершения транзакции, поэтому следующий запрос видит уже
+ * зафиксированное бронирование.
+ */
+@Component
+public class ItemBookingLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Duration timeout;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public ItemBookingLocks(@Value("${shareit.booking.lock.stripes:64}") int stripes,
+                            @Value("${shareit.booking.lock.timeout:PT5S}") Duration timeout,
+                            MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripes) * 2 - 1)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = this.stripes.length - 1;
+        this.timeout = timeout;
+        this.waitTimer = Timer.builder("shareit.booking.lock.wait")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("shareit.booking.lock.timeouts")
+                .register(meterRegistry);
+    }
+
+    public void lockUntilCompletion(long itemId) {
+        ReentrantLock lock = stripes[stripe(itemId)];
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new ConflictException(String.format("Вещь %d сейчас бронируется другим запросом.", itemId));
+        }
+        TransactionCallbacks.afterCompletion(lock::unlock);
+    }
+
+    private int stripe(long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
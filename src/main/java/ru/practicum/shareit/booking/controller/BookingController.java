@@ -3,13 +3,27 @@ package ru.practicum.shareit.booking.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.export.ExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.pipeline.BookingWritePipeline;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
+import ru.practicum.shareit.web.ShareItHeaders;
 
 import java.util.List;
 
@@ -19,13 +33,20 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final BookingWritePipeline bookingWritePipeline;
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
-    public BookingDto create(@RequestHeader("X-Sharer-User-Id") long userId,
-                             @RequestBody @Valid BookingCreateDto bookingCreateDto) {
+    public BookingDto create(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestHeader(name = ShareItHeaders.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody @Valid BookingCreateDto bookingCreateDto) {
         log.info("Запрос на сохранение бронирования: POST /bookings");
-        BookingDto booking = bookingService.create(userId, bookingCreateDto);
+        BookingDto booking = idempotencyKey == null
+                ? bookingWritePipeline.create(userId, bookingCreateDto)
+                : idempotencyService.execute(userId, "POST /bookings", idempotencyKey, bookingCreateDto,
+                        BookingDto.class, () -> bookingService.create(userId, bookingCreateDto));
         log.info("Информация о бронировании сохранена: {}", booking.toString());
         return booking;
     }
@@ -40,6 +61,15 @@ public class BookingController {
         return updatedBooking;
     }
 
+    @PatchMapping("/approvals")
+    public List<BookingDecisionResultDto> approveAllByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Запрос на обновление {} бронирований: PATCH /bookings/approvals", decisions.size());
+        List<BookingDecisionResultDto> results = bookingService.approveAllByOwner(userId, decisions);
+        log.info("Результаты обновления бронирований: {}", results);
+        return results;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto get(@RequestHeader("X-Sharer-User-Id") long userId,
                           @PathVariable("bookingId") long bookingId) {
@@ -50,8 +80,11 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBooker(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestParam(defaultValue = "ALL", required = false) State state) {
+    public ResponseEntity<List<BookingDto>> getAllByBooker(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL", required = false) State state,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
         log.info("Запрос на получение всех бронирований пользователя с id = {} и статусом '{}': GET /bookings",
                 userId, state);
         try {
@@ -59,14 +92,21 @@ public class BookingController {
         } catch (BadRequestException e) {
             throw new BadRequestException(String.format("Неизвестный статус состояния %s.", state));
         }
-        List<BookingDto> bookings = bookingService.getAllByBooker(userId, state);
-        log.info("Количество бронирований пользователя: {}", bookings.size());
-        return bookings;
+        BookingPageDto bookings = bookingService.getAllByBooker(userId, state, cursor, size);
+        log.info("Количество бронирований пользователя: {}", bookings.getBookings().size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.getNextCursor() != null) {
+            response.header(ShareItHeaders.NEXT_CURSOR_HEADER, bookings.getNextCursor());
+        }
+        return response.body(bookings.getBookings());
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @RequestParam(defaultValue = "ALL", required = false) State state) {
+    public ResponseEntity<List<BookingDto>> getAllByOwner(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL", required = false) State state,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
         log.info("Запрос на получение всех бронирований арендодателя с id = {} и статусом '{}': GET /bookings",
                 userId, state);
         try {
@@ -74,8 +114,53 @@ public class BookingController {
         } catch (BadRequestException e) {
             throw new BadRequestException(String.format("Неизвестный статус состояния %s.", state));
         }
-        List<BookingDto> bookings = bookingService.getAllByOwner(userId, state);
-        log.info("Количество бронирований арендодателя: {}", bookings.size());
-        return bookings;
+        BookingPageDto bookings = bookingService.getAllByOwner(userId, state, cursor, size);
+        log.info("Количество бронирований арендодателя: {}", bookings.getBookings().size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.getNextCursor() != null) {
+            response.header(ShareItHeaders.NEXT_CURSOR_HEADER, bookings.getNextCursor());
+        }
+        return response.body(bookings.getBookings());
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getSummaryByBooker(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Запрос на получение количества бронирований пользователя с id = {}: GET /bookings/summary",
+                userId);
+        BookingSummaryDto summary = bookingService.getSummaryByBooker(userId);
+        log.info("Количество бронирований пользователя по состояниям: {}", summary);
+        return summary;
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwner(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "CSV", required = false) ExportFormat format) {
+        log.info("Запрос на выгрузку бронирований арендодателя с id = {} в формате {}: GET /bookings/owner/export",
+                userId, format);
+        StreamingResponseBody body = bookingService.exportByOwner(userId, format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getSummaryByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Запрос на получение количества бронирований арендодателя с id = {}: GET /bookings/owner/summary",
+                userId);
+        BookingSummaryDto summary = bookingService.getSummaryByOwner(userId);
+        log.info("Количество бронирований арендодателя по состояниям: {}", summary);
+        return summary;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") long userId,
+                             @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Запрос на подписку на события бронирований пользователя с id = {}: GET /bookings/stream", userId);
+        return bookingService.subscribe(userId, lastEventId);
     }
-}
\ No newline at end of file
+}
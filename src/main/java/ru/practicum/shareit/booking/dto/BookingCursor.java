@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record BookingCursor(LocalDateTime start, long id) {
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static ScrollPosition positionOf(String cursor) {
+        return cursor == null ? ScrollPosition.keyset() : decode(cursor).toPosition();
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(cursor);
+            }
+            return new BookingCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException(String.format("Некорректный курсор бронирований: %s.", cursor));
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((start + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public KeysetScrollPosition toPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("start", start);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
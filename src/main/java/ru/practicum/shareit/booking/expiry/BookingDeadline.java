@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.expiry;
+
+import java.time.LocalDateTime;
+
+public record BookingDeadline(long id, long itemId, LocalDateTime deadline) {
+}
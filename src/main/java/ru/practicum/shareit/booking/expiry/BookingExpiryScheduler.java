@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking.expiry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.outbox.model.EventType;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
+import ru.practicum.shareit.scheduling.TimingWheel;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Отклоняет бронирования, которые владелец не подтвердил до срока approval_deadline.
+ * Сроки ожидающих бронирований в пределах горизонта колеса таймеров лежат в колесе, более далёкие
+ * дозагружаются из базы по мере движения времени; наступившие сроки применяются пакетами:
+ * блокировка всё ещё ожидающих строк и один UPDATE на пакет.
+ * О каждом отклонении в той же транзакции пишется событие в outbox.
+ */
+@Slf4j
+@Component
+public class BookingExpiryScheduler {
+    private static final int BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transaction;
+    private final Duration approvalTimeout;
+    private final TimingWheel<Long, BookingDeadline> wheel;
+    private final Duration horizon;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile LocalDateTime loadedUntil;
+
+    public BookingExpiryScheduler(BookingRepository bookingRepository,
+                                  BookingAvailabilityIndex bookingAvailabilityIndex,
+                                  OutboxPublisher outboxPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${shareit.booking.approval-timeout:P1D}") Duration approvalTimeout,
+                                  @Value("${shareit.booking.expiry.tick:PT1S}") Duration tick,
+                                  @Value("${shareit.booking.expiry.wheel-size:512}") int wheelSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingAvailabilityIndex = bookingAvailabilityIndex;
+        this.outboxPublisher = outboxPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.approvalTimeout = approvalTimeout;
+        this.wheel = new TimingWheel<>(tick, wheelSize, System.currentTimeMillis());
+        this.horizon = wheel.horizon();
+    }
+
+    public LocalDateTime deadlineFor(LocalDateTime start, LocalDateTime now) {
+        LocalDateTime deadline = now.plus(approvalTimeout);
+        return deadline.isBefore(start) ? deadline : start;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        transaction.executeWithoutResult(status -> bookingRepository.fillMissingApprovalDeadlines(Status.WAITING));
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        bookingRepository.findDeadlinesByStatusDueUntil(Status.WAITING, until).forEach(this::schedule);
+        loadedUntil = until;
+        log.info("Загружены сроки подтверждения {} ожидающих бронирований до {}", wheel.size(), until);
+    }
+
+    @Scheduled(fixedRateString = "${shareit.booking.expiry.refill-interval:PT1M}")
+    public void refill() {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        if (from == null || !until.isAfter(from)) {
+            return;
+        }
+        List<BookingDeadline> loaded = bookingRepository.findDeadlinesByStatusDueBetween(Status.WAITING, from, until);
+        loaded.forEach(this::schedule);
+        loadedUntil = until;
+        log.debug("Дозагружены сроки подтверждения {} бронирований до {}", loaded.size(), until);
+    }
+
+    public void track(Booking booking) {
+        BookingDeadline deadline = new BookingDeadline(
+                booking.getId(), booking.getItem().getId(), booking.getApprovalDeadline());
+        TransactionCallbacks.afterCommit(() -> {
+            if (!deadline.deadline().isAfter(LocalDateTime.now().plus(horizon))) {
+                schedule(deadline);
+            }
+        });
+    }
+
+    public void forget(long bookingId) {
+        TransactionCallbacks.afterCommit(() -> wheel.cancel(bookingId));
+    }
+
+    @Scheduled(fixedRateString = "${shareit.booking.expiry.tick:PT1S}")
+    public void tick() {
+        List<BookingDeadline> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            List<BookingDeadline> batch = due.subList(from, Math.min(from + BATCH_SIZE, due.size()));
+            try {
+                transaction.executeWithoutResult(status -> expire(batch));
+            } catch (RuntimeException e) {
+                log.error("Не удалось отклонить {} просроченных бронирований, повтор на следующем тике",
+                        batch.size(), e);
+                batch.forEach(this::schedule);
+            }
+        }
+    }
+
+    private void expire(List<BookingDeadline> batch) {
+        List<Long> ids = batch.stream().map(BookingDeadline::id).toList();
+        List<Booking> waiting = bookingRepository.findAllByIdInAndStatusForUpdate(ids, Status.WAITING);
+        if (waiting.isEmpty()) {
+            return;
+        }
+        List<Long> expiredIds = new ArrayList<>(waiting.size());
+        for (Booking booking : waiting) {
+            expiredIds.add(booking.getId());
+            bookingAvailabilityIndex.release(booking.getItem().getId(), booking.getId());
+        }
+        bookingRepository.updateStatus(expiredIds, Status.WAITING, Status.REJECTED);
+        for (Booking booking : waiting) {
+            booking.setStatus(Status.REJECTED);
+            outboxPublisher.publish(EventType.BOOKING_REJECTED, booking.getId(),
+                    BookingMapper.toBookingEventDto(booking));
+        }
+        log.info("Отклонены бронирования с истёкшим сроком подтверждения: {}", expiredIds);
+    }
+
+    private void schedule(BookingDeadline deadline) {
+        wheel.schedule(deadline.id(), deadline, deadline.deadline().atZone(zone).toInstant().toEpochMilli());
+    }
+}
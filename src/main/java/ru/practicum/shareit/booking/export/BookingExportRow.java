@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.export;
+
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+public record BookingExportRow(long id, LocalDateTime start, LocalDateTime end, Status status,
+                               long itemId, String itemName, long bookerId, String bookerName) {
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.export.StreamingExporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Потоковая выгрузка бронирований владельца в CSV или NDJSON. Запрос возвращает проекцию, которая
+ * читается курсором через {@link StreamingExporter}, поэтому память не зависит от размера выгрузки.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingExporter {
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName";
+
+    private final BookingRepository bookingRepository;
+    private final StreamingExporter streamingExporter;
+
+    public void exportByOwner(long ownerId, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.CSV) {
+            streamingExporter.write(() -> bookingRepository.streamByItemOwnerId(ownerId), CSV_HEADER,
+                    BookingExporter::toCsv, out);
+        } else {
+            streamingExporter.writeNdjson(() -> bookingRepository.streamByItemOwnerId(ownerId), out);
+        }
+    }
+
+    private static String toCsv(BookingExportRow row) {
+        return String.join(",",
+                String.valueOf(row.id()),
+                String.valueOf(row.start()),
+                String.valueOf(row.end()),
+                row.status().name(),
+                String.valueOf(row.itemId()),
+                escape(row.itemName()),
+                String.valueOf(row.bookerId()),
+                escape(row.bookerName()));
+    }
+
+    private static String escape(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -7,6 +7,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.dto.BookingEventDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -44,4 +45,16 @@ public class BookingMapper {
                 .booker(user)
                 .build();
     }
-}
\ No newline at end of file
+
+    public static BookingEventDto toBookingEventDto(Booking booking) {
+        return BookingEventDto.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .status(booking.getStatus().name())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+}
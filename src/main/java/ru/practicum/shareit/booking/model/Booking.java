@@ -26,7 +26,8 @@ import java.time.LocalDateTime;
 )
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     @NotNull
     @Column(name = "start_time", nullable = false)
@@ -40,7 +41,22 @@ public class Booking {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private Status status;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false)
+    private Phase phase;
+    @Column(name = "approval_deadline")
+    private LocalDateTime approvalDeadline;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @PrePersist
+    private void copyOwner() {
+        ownerId = item.getOwner().getId();
+    }
 }
\ No newline at end of file
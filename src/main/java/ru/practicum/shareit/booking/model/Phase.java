@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+public enum Phase {
+    FUTURE,
+    CURRENT,
+    PAST;
+
+    public static Phase of(LocalDateTime start, LocalDateTime end, LocalDateTime time) {
+        if (!end.isAfter(time)) {
+            return PAST;
+        }
+        return start.isAfter(time) ? FUTURE : CURRENT;
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking.phase;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.comment.service.CommentEligibilityCache;
+import ru.practicum.shareit.scheduling.TimingWheel;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Поддерживает сохранённую фазу бронирований FUTURE -> CURRENT -> PAST. Колесо таймеров держит
+ * ближайшие переходы бронирований в пределах своего горизонта, и на каждом тике наступившие переходы
+ * применяются пакетными UPDATE без сканирования таблицы. При старте фазы один раз сверяются
+ * с текущим временем; более далёкие переходы колесо дозагружает из базы по мере движения времени.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+    private static final int BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final TransactionTemplate transaction;
+    private final TimingWheel<Long, BookingPhaseTimes> wheel;
+    private final Duration horizon;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile LocalDateTime loadedUntil;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository,
+                                 CommentEligibilityCache commentEligibilityCache,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.booking.phase.tick:PT1S}") Duration tick,
+                                 @Value("${shareit.booking.phase.wheel-size:512}") int wheelSize) {
+        this.bookingRepository = bookingRepository;
+        this.commentEligibilityCache = commentEligibilityCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.wheel = new TimingWheel<>(tick, wheelSize, System.currentTimeMillis());
+        this.horizon = wheel.horizon();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer reconciled = transaction.execute(status ->
+                bookingRepository.updatePhaseOfEnded(Phase.PAST, now)
+                        + bookingRepository.updatePhaseOfStarted(Phase.CURRENT, now));
+        LocalDateTime until = now.plus(horizon);
+        bookingRepository.findPhaseTimesDueBetween(Phase.FUTURE, Phase.CURRENT, now, until).forEach(this::schedule);
+        loadedUntil = until;
+        log.info("Фазы бронирований сверены: обновлено {}, переходов до {}: {}", reconciled, until, wheel.size());
+    }
+
+    @Scheduled(fixedRateString = "${shareit.booking.phase.refill-interval:PT1M}")
+    public void refill() {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        if (from == null || !until.isAfter(from)) {
+            return;
+        }
+        List<BookingPhaseTimes> loaded = bookingRepository.findPhaseTimesDueBetween(
+                Phase.FUTURE, Phase.CURRENT, from, until);
+        loaded.forEach(this::schedule);
+        loadedUntil = until;
+        log.debug("Дозагружены переходы фаз {} бронирований до {}", loaded.size(), until);
+    }
+
+    public void track(Booking booking) {
+        BookingPhaseTimes times = new BookingPhaseTimes(
+                booking.getId(), booking.getStart(), booking.getEnd(), booking.getPhase());
+        if (times.phase() != Phase.PAST) {
+            TransactionCallbacks.afterCommit(() -> scheduleWithinHorizon(times));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${shareit.booking.phase.tick:PT1S}")
+    public void tick() {
+        long nowMillis = System.currentTimeMillis();
+        List<BookingPhaseTimes> due = wheel.advance(nowMillis);
+        if (due.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), zone);
+        Map<Phase, List<BookingPhaseTimes>> transitions = new EnumMap<>(Phase.class);
+        for (BookingPhaseTimes times : due) {
+            Phase phase = Phase.of(times.start(), times.end(), now);
+            transitions.computeIfAbsent(phase, key -> new ArrayList<>())
+                    .add(new BookingPhaseTimes(times.id(), times.start(), times.end(), phase));
+        }
+        try {
+            transaction.executeWithoutResult(status -> transitions.forEach((phase, bookings) -> {
+                if (phase != Phase.FUTURE) {
+                    updatePhase(bookings, phase);
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить фазы {} бронирований, повтор на следующем тике", due.size(), e);
+            due.forEach(this::schedule);
+            return;
+        }
+        transitions.getOrDefault(Phase.FUTURE, List.of()).forEach(this::scheduleWithinHorizon);
+        transitions.getOrDefault(Phase.CURRENT, List.of()).forEach(this::scheduleWithinHorizon);
+        finished(transitions.getOrDefault(Phase.PAST, List.of()));
+    }
+
+    private void updatePhase(List<BookingPhaseTimes> bookings, Phase phase) {
+        for (int from = 0; from < bookings.size(); from += BATCH_SIZE) {
+            List<Long> ids = bookings.subList(from, Math.min(from + BATCH_SIZE, bookings.size())).stream()
+                    .map(BookingPhaseTimes::id)
+                    .toList();
+            bookingRepository.updatePhase(ids, phase);
+        }
+    }
+
+    private void finished(List<BookingPhaseTimes> bookings) {
+        try {
+            for (int from = 0; from < bookings.size(); from += BATCH_SIZE) {
+                commentEligibilityCache.finished(bookings.subList(from, Math.min(from + BATCH_SIZE, bookings.size()))
+                        .stream()
+                        .map(BookingPhaseTimes::id)
+                        .toList());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отметить право на комментарий для {} завершённых бронирований", bookings.size(), e);
+        }
+    }
+
+    /**
+     * Переход дальше горизонта колеса не ставится: к моменту, когда он войдёт в горизонт,
+     * его подхватит {@link #refill()}, потому что он позже любой уже загруженной границы.
+     */
+    private void scheduleWithinHorizon(BookingPhaseTimes times) {
+        if (!next(times).isAfter(LocalDateTime.now().plus(horizon))) {
+            schedule(times);
+        }
+    }
+
+    private void schedule(BookingPhaseTimes times) {
+        wheel.schedule(times.id(), times, next(times).atZone(zone).toInstant().toEpochMilli());
+    }
+
+    private static LocalDateTime next(BookingPhaseTimes times) {
+        return times.phase() == Phase.FUTURE ? times.start() : times.end();
+    }
+}
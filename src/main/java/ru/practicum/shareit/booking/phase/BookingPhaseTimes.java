@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.phase;
+
+import ru.practicum.shareit.booking.model.Phase;
+
+import java.time.LocalDateTime;
+
+public record BookingPhaseTimes(long id, LocalDateTime start, LocalDateTime end, Phase phase) {
+}
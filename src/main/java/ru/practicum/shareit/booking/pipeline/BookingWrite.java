@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Getter
+public class BookingWrite {
+    private final long userId;
+    private final BookingCreateDto booking;
+    private final long enqueuedNanos = System.nanoTime();
+    private final CompletableFuture<BookingDto> response = new CompletableFuture<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    public BookingWrite(long userId, BookingCreateDto booking) {
+        this.userId = userId;
+        this.booking = booking;
+    }
+
+    /**
+     * Забирает запрос ровно одной стороне: рабочему потоку, который его создаст, или клиенту,
+     * который не дождался ответа и снимает запрос с очереди. Вторая сторона получает false.
+     */
+    public boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Групповая фиксация создаваемых бронирований. Запросы складываются в ограниченную очередь,
+ * один рабочий поток забирает их пачками до batch-size, ожидая добора не дольше max-wait
+ * от первого запроса пачки, и создаёт всю пачку в одной транзакции. Ответ каждому запросу
+ * отдаётся после фиксации его пачки; если пачка не зафиксировалась, оставшиеся запросы
+ * повторяются по одному. Если ответ не пришёл за response-timeout, а рабочий поток ещё не взял
+ * запрос, запрос снимается с очереди и клиент получает конфликт; если уже взял, клиент дожидается
+ * исхода его транзакции, чтобы не ответить ошибкой на созданное бронирование. При выключенном
+ * конвейере или переполненной очереди бронирование создаётся напрямую в потоке запроса.
+ */
+@Slf4j
+@Component
+public class BookingWritePipeline {
+    private final BookingService bookingService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration maxWait;
+    private final Duration responseTimeout;
+    private final BlockingQueue<BookingWrite> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer queueLatency;
+    private volatile Thread worker;
+
+    public BookingWritePipeline(BookingService bookingService,
+                                @Value("${shareit.booking.pipeline.enabled:false}") boolean enabled,
+                                @Value("${shareit.booking.pipeline.batch-size:100}") int batchSize,
+                                @Value("${shareit.booking.pipeline.max-wait:PT0.005S}") Duration maxWait,
+                                @Value("${shareit.booking.pipeline.queue-capacity:10000}") int queueCapacity,
+                                @Value("${shareit.booking.pipeline.response-timeout:PT10S}") Duration responseTimeout,
+                                MeterRegistry meterRegistry) {
+        this.bookingService = bookingService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+        this.responseTimeout = responseTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("shareit.booking.pipeline.batch.size")
+                .register(meterRegistry);
+        this.queueLatency = Timer.builder("shareit.booking.pipeline.queue.latency")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.pipeline.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "booking-write-pipeline");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        log.info("Конвейер создания бронирований запущен: пачка до {}, ожидание до {}", batchSize, maxWait);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public BookingDto create(long userId, BookingCreateDto bookingCreateDto) {
+        BookingWrite write = new BookingWrite(userId, bookingCreateDto);
+        if (worker == null || !queue.offer(write)) {
+            return bookingService.create(userId, bookingCreateDto);
+        }
+        try {
+            try {
+                return write.getResponse().get(responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (write.claim()) {
+                    throw new ConflictException("Бронирование не создано вовремя, повторите запрос.");
+                }
+                log.warn("Запрос на бронирование пользователя {} ждёт ответа дольше {}, его пачка ещё фиксируется",
+                        userId, responseTimeout);
+                return write.getResponse().get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Бронирование не создано вовремя, повторите запрос.");
+        }
+    }
+
+    private void run() {
+        while (worker != null) {
+            try {
+                BookingWrite first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    flush(collect(first));
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                log.error("Ошибка конвейера создания бронирований", e);
+            }
+        }
+        List<BookingWrite> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.stream()
+                .filter(BookingWrite::claim)
+                .forEach(this::createDirectly);
+    }
+
+    private List<BookingWrite> collect(BookingWrite first) throws InterruptedException {
+        List<BookingWrite> writes = new ArrayList<>(batchSize);
+        writes.add(first);
+        long deadline = first.getEnqueuedNanos() + maxWait.toNanos();
+        while (writes.size() < batchSize) {
+            queue.drainTo(writes, batchSize - writes.size());
+            long remaining = deadline - System.nanoTime();
+            if (writes.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            BookingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            writes.add(next);
+        }
+        return writes;
+    }
+
+    private void flush(List<BookingWrite> collected) {
+        List<BookingWrite> writes = collected.stream()
+                .filter(BookingWrite::claim)
+                .toList();
+        if (writes.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        batchSizes.record(writes.size());
+        for (BookingWrite write : writes) {
+            queueLatency.record(now - write.getEnqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            bookingService.createAll(writes);
+        } catch (RuntimeException e) {
+            log.warn("Пачка из {} бронирований не зафиксирована, повтор по одному", writes.size(), e);
+            writes.stream()
+                    .filter(write -> !write.getResponse().isDone())
+                    .forEach(this::createDirectly);
+        }
+    }
+
+    private void createDirectly(BookingWrite write) {
+        try {
+            write.getResponse().complete(bookingService.create(write.getUserId(), write.getBooking()));
+        } catch (RuntimeException e) {
+            write.getResponse().completeExceptionally(e);
+        }
+    }
+}
@@ -1,66 +1,194 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.expiry.BookingDeadline;
+import ru.practicum.shareit.booking.export.BookingExportRow;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.comment.service.EligibleAuthor;
+import ru.practicum.shareit.user.deletion.PurgedBooking;
+import ru.practicum.shareit.booking.phase.BookingPhaseTimes;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId);
+    Window<Booking> findAllByBookerIdOrderByStartDescIdDesc(
+            long bookerId, ScrollPosition position, Limit limit);
 
     @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(long bookerId, LocalDateTime time1, LocalDateTime time2);
+    Window<Booking> findAllByBookerIdAndPhaseOrderByStartDescIdDesc(
+            long bookerId, Phase phase, ScrollPosition position, Limit limit);
 
     @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(long bookerId, LocalDateTime time);
+    Window<Booking> findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+            long bookerId, Status state, ScrollPosition position, Limit limit);
 
     @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(long bookerId, LocalDateTime time);
+    Window<Booking> findAllByOwnerIdOrderByStartDescIdDesc(
+            long ownerId, ScrollPosition position, Limit limit);
 
     @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long bookerId, Status state);
+    Window<Booking> findAllByOwnerIdAndPhaseOrderByStartDescIdDesc(
+            long ownerId, Phase phase, ScrollPosition position, Limit limit);
 
     @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(long ownerId);
+    Window<Booking> findAllByOwnerIdAndStatusOrderByStartDescIdDesc(
+            long ownerId, Status state, ScrollPosition position, Limit limit);
 
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(long ownerId, LocalDateTime time1, LocalDateTime time2);
-
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(long ownerId, LocalDateTime time);
-
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(long ownerId, LocalDateTime time);
-
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(long ownerId, Status state);
-
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findAllByBookerIdAndItemIdAndStatusAndEndBefore(
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(
             long bookerId, long itemId, Status status, LocalDateTime time);
 
-    @EntityGraph(value = "booking-entity-graph")
-    Optional<Booking> findFirstByItemIdAndStartLessThanEqualAndStatus(
-            long itemId, LocalDateTime now, Status status, Sort end);
-
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findByItemInAndStartLessThanEqualAndStatus(
-            List<Item> items, LocalDateTime now, Status approved, Sort end);
-
-    @EntityGraph(value = "booking-entity-graph")
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatus(
-            long itemId, LocalDateTime now, Status status, Sort end);
-
-    @EntityGraph(value = "booking-entity-graph")
-    List<Booking> findByItemInAndStartAfterAndStatus(
-            List<Item> items, LocalDateTime now, Status approved, Sort end);
+    @Query("SELECT new ru.practicum.shareit.item.comment.service.EligibleAuthor(b.booker.id, b.item.id) " +
+            "FROM Booking AS b WHERE b.id IN :ids AND b.status = :status")
+    List<EligibleAuthor> findEligibleAuthorsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                                            @Param("status") Status status);
+
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(long itemId, Collection<Status> statuses, LocalDateTime time);
+
+    List<Booking> findAllByItemIdAndStatusInAndStartBeforeAndEndAfter(
+            long itemId, Collection<Status> statuses, LocalDateTime to, LocalDateTime from);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingSummaryDto(COUNT(b), " +
+            "COALESCE(SUM(CASE WHEN b.phase = :current THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.phase = :future THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = :waiting THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = :rejected THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.phase = :past THEN 1L ELSE 0L END), 0L)) " +
+            "FROM Booking AS b WHERE b.booker.id = :userId")
+    BookingSummaryDto summarizeByBookerId(@Param("userId") long userId,
+                                          @Param("current") Phase current, @Param("future") Phase future,
+                                          @Param("past") Phase past, @Param("waiting") Status waiting,
+                                          @Param("rejected") Status rejected);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingSummaryDto(COUNT(b), " +
+            "COALESCE(SUM(CASE WHEN b.phase = :current THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.phase = :future THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = :waiting THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = :rejected THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.phase = :past THEN 1L ELSE 0L END), 0L)) " +
+            "FROM Booking AS b WHERE b.item.owner.id = :userId")
+    BookingSummaryDto summarizeByItemOwnerId(@Param("userId") long userId,
+                                             @Param("current") Phase current, @Param("future") Phase future,
+                                             @Param("past") Phase past, @Param("waiting") Status waiting,
+                                             @Param("rejected") Status rejected);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findWithItemAndBookerById(long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking AS b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.status = :expected")
+    int updateStatus(@Param("id") long id, @Param("expected") Status expected, @Param("status") Status status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking AS b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = :expected")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("expected") Status expected,
+                     @Param("status") Status status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item WHERE b.id IN :ids AND b.status = :status")
+    List<Booking> findAllByIdInAndStatusForUpdate(@Param("ids") Collection<Long> ids, @Param("status") Status status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item WHERE b.id IN :ids")
+    List<Booking> findAllWithItemByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new ru.practicum.shareit.booking.expiry.BookingDeadline(b.id, b.item.id, b.approvalDeadline) " +
+            "FROM Booking AS b WHERE b.status = :status AND b.approvalDeadline <= :until")
+    List<BookingDeadline> findDeadlinesByStatusDueUntil(@Param("status") Status status,
+                                                        @Param("until") LocalDateTime until);
+
+    @Query("SELECT new ru.practicum.shareit.booking.expiry.BookingDeadline(b.id, b.item.id, b.approvalDeadline) " +
+            "FROM Booking AS b WHERE b.status = :status " +
+            "AND b.approvalDeadline > :from AND b.approvalDeadline <= :until")
+    List<BookingDeadline> findDeadlinesByStatusDueBetween(@Param("status") Status status,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE Booking AS b SET b.approvalDeadline = b.start " +
+            "WHERE b.status = :status AND b.approvalDeadline IS NULL")
+    int fillMissingApprovalDeadlines(@Param("status") Status status);
+
+    @Query("SELECT new ru.practicum.shareit.booking.phase.BookingPhaseTimes(b.id, b.start, b.end, b.phase) " +
+            "FROM Booking AS b " +
+            "WHERE b.phase = :future AND b.start > :from AND b.start <= :until " +
+            "OR b.phase = :current AND b.end > :from AND b.end <= :until")
+    List<BookingPhaseTimes> findPhaseTimesDueBetween(@Param("future") Phase future,
+                                                     @Param("current") Phase current,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE Booking AS b SET b.phase = :phase WHERE b.id IN :ids")
+    int updatePhase(@Param("ids") Collection<Long> ids, @Param("phase") Phase phase);
+
+    @Modifying
+    @Query("UPDATE Booking AS b SET b.phase = :phase WHERE b.phase <> :phase AND b.end <= :now")
+    int updatePhaseOfEnded(@Param("phase") Phase phase, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Booking AS b SET b.phase = :phase " +
+            "WHERE b.phase <> :phase AND b.start <= :now AND b.end > :now")
+    int updatePhaseOfStarted(@Param("phase") Phase phase, @Param("now") LocalDateTime now);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.practicum.shareit.booking.export.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, u.id, u.name) " +
+            "FROM Booking AS b JOIN b.item AS i JOIN b.booker AS u " +
+            "WHERE i.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC")
+    Stream<BookingExportRow> streamByItemOwnerId(@Param("ownerId") long ownerId);
+
+    @Query("SELECT new ru.practicum.shareit.user.deletion.PurgedBooking(b.id, i.id, b.booker.id, i.owner.id) " +
+            "FROM Booking AS b JOIN b.item AS i WHERE b.booker.id = :bookerId")
+    List<PurgedBooking> findPurgeableByBookerId(@Param("bookerId") long bookerId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.user.deletion.PurgedBooking(b.id, i.id, b.booker.id, i.owner.id) " +
+            "FROM Booking AS b JOIN b.item AS i WHERE i.owner.id = :ownerId")
+    List<PurgedBooking> findPurgeableByItemOwnerId(@Param("ownerId") long ownerId, Limit limit);
+
+    @Query(value = """
+            SELECT b.* FROM items AS i
+            JOIN bookings AS b ON b.id = (
+                SELECT l.id FROM bookings AS l
+                WHERE l.item_id = i.id AND l.status = 'APPROVED' AND l.start_time <= :now
+                ORDER BY l.end_time DESC, l.id DESC
+                LIMIT 1)
+            WHERE i.id IN (:itemIds)
+            UNION ALL
+            SELECT b.* FROM items AS i
+            JOIN bookings AS b ON b.id = (
+                SELECT n.id FROM bookings AS n
+                WHERE n.item_id = i.id AND n.status = 'APPROVED' AND n.end_time > :now AND n.start_time > :now
+                ORDER BY n.end_time ASC, n.id ASC
+                LIMIT 1)
+            WHERE i.id IN (:itemIds)
+            """, nativeQuery = true)
+    List<Booking> findLastAndNextApprovedByItemIds(
+            @Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -1,21 +1,40 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.export.ExportFormat;
 import ru.practicum.shareit.booking.model.State;
-
+import ru.practicum.shareit.booking.pipeline.BookingWrite;
 import java.util.List;
 
 public interface BookingService {
 
     BookingDto create(long userId, BookingCreateDto bookingCreateDto);
 
+    void createAll(List<BookingWrite> writes);
+
     BookingDto approvedByOwner(long userId, long bookingId, boolean approved);
 
+    List<BookingDecisionResultDto> approveAllByOwner(long userId, List<BookingDecisionDto> decisions);
+
     BookingDto getBookingByIdAndUserId(long userId, long bookingId);
 
-    List<BookingDto> getAllByBooker(long userId, State state);
+    BookingPageDto getAllByBooker(long userId, State state, String cursor, Integer size);
+
+    BookingPageDto getAllByOwner(long userId, State state, String cursor, Integer size);
+
+    BookingSummaryDto getSummaryByBooker(long userId);
+
+    BookingSummaryDto getSummaryByOwner(long userId);
+
+    SseEmitter subscribe(long userId, Long lastEventId);
 
-    List<BookingDto> getAllByOwner(long userId, State state);
+    StreamingResponseBody exportByOwner(long userId, ExportFormat format);
 
 }
\ No newline at end of file
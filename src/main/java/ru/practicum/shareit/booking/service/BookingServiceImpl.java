@@ -2,58 +2,146 @@ package ru.practicum.shareit.booking.service;
 
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.ItemBookingLocks;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.model.Phase;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.phase.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.pipeline.BookingWrite;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.stream.BookingEventStream;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.expiry.BookingExpiryScheduler;
+import ru.practicum.shareit.booking.export.BookingExporter;
+import ru.practicum.shareit.booking.export.ExportFormat;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+import ru.practicum.shareit.outbox.model.EventType;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+import ru.practicum.shareit.transaction.TransactionSavepoints;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_DECISIONS = 500;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserResolver userResolver;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final ItemSummaryService itemSummaryService;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final ItemBookingLocks itemBookingLocks;
+    private final BookingPhaseScheduler bookingPhaseScheduler;
+    private final BookingExpiryScheduler bookingExpiryScheduler;
+    private final BookingSummaryCache bookingSummaryCache;
+    private final OutboxPublisher outboxPublisher;
+    private final BookingEventStream bookingEventStream;
+    private final BookingExporter bookingExporter;
+    private final TransactionSavepoints transactionSavepoints;
 
     @Override
     @Transactional
     public BookingDto create(long userId, BookingCreateDto bookingCreateDto) {
-        validate(userId, bookingCreateDto);
-
-        User booker = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException(String.format("Пользователь с id %d не найден.", userId)));
+        itemBookingLocks.lockUntilCompletion(bookingCreateDto.getItemId());
+        validateDates(bookingCreateDto);
 
         Item item = itemRepository.findById(bookingCreateDto.getItemId()).orElseThrow(
                 () -> new NotFoundException(String.format("Вещь с идентификатором %d не найдена",
                         bookingCreateDto.getItemId())));
-        Booking bookingForCreate = BookingMapper.toBooking(booker, item, bookingCreateDto);
-        bookingForCreate.setStatus(Status.WAITING);
-        Booking createdBooking = bookingRepository.save(bookingForCreate);
-        return bookingMapper.toBookingDto(createdBooking);
+        validate(userId, item, bookingCreateDto);
+
+        User booker = userResolver.require(userId);
+        return bookingMapper.toBookingDto(save(booker, item, bookingCreateDto));
+    }
+
+    /**
+     * Каждая запись пачки создаётся в своей точке сохранения: ошибка одной записи откатывает
+     * только её изменения, остальные фиксируются общей транзакцией. Откат точки сохранения не вызывает
+     * колбэков транзакции, поэтому в {@link #save} резерв в индексе занятости идёт последним из шагов,
+     * которые могут упасть.
+     */
+    @Override
+    @Transactional
+    public void createAll(List<BookingWrite> writes) {
+        Map<Long, User> bookers = userRepository.findAllByIdInAndDeletedFalse(writes.stream()
+                        .map(BookingWrite::getUserId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Item> items = itemRepository.findAllById(writes.stream()
+                        .map(write -> write.getBooking().getItemId())
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        for (BookingWrite write : writes) {
+            long userId = write.getUserId();
+            BookingCreateDto bookingCreateDto = write.getBooking();
+            try {
+                itemBookingLocks.lockUntilCompletion(bookingCreateDto.getItemId());
+                BookingDto created = transactionSavepoints.execute(() -> {
+                    validateDates(bookingCreateDto);
+                    Item item = items.get(bookingCreateDto.getItemId());
+                    if (item == null) {
+                        throw new NotFoundException(String.format("Вещь с идентификатором %d не найдена",
+                                bookingCreateDto.getItemId()));
+                    }
+                    validate(userId, item, bookingCreateDto);
+                    User booker = bookers.get(userId);
+                    if (booker == null) {
+                        throw new NotFoundException(String.format("Пользователь с id %d не найден.", userId));
+                    }
+                    return bookingMapper.toBookingDto(save(booker, item, bookingCreateDto));
+                });
+                TransactionCallbacks.afterCommit(() -> write.getResponse().complete(created));
+            } catch (RuntimeException e) {
+                write.getResponse().completeExceptionally(e);
+            }
+        }
     }
 
     @Override
     @Transactional
     public BookingDto approvedByOwner(long userId, long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(
                 () -> new NotFoundException(String.format("Бронирование с идентификатором %d не найдено.", bookingId)));
 
-        if (!userRepository.existsById(userId)) {
+        if (!userResolver.exists(userId)) {
             throw new ValidationException(String.format("Некорректный id пользователя: %d.", userId));
         }
 
@@ -71,9 +159,86 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException(String.format("Вещь %s уже забронирована", booking.getItem().getName()));
         }
 
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
-        return bookingMapper.toBookingDto(updatedBooking);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, Status.WAITING, status) == 0) {
+            throw new ConflictException(String.format("Статус бронирования %d уже изменён другим запросом.",
+                    bookingId));
+        }
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
+        bookingAvailabilityIndex.changeStatus(booking);
+        bookingExpiryScheduler.forget(bookingId);
+        bookingSummaryCache.evict(booking.getBooker().getId(), userId);
+        outboxPublisher.publish(toEventType(status), bookingId, BookingMapper.toBookingEventDto(booking));
+        if (status == Status.APPROVED) {
+            itemSummaryService.refreshBookings(List.of(booking.getItem().getId()));
+        }
+        return bookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> approveAllByOwner(long userId, List<BookingDecisionDto> decisions) {
+        if (decisions.size() > MAX_DECISIONS) {
+            throw new BadRequestException(String.format("Нельзя обработать больше %d бронирований за запрос.",
+                    MAX_DECISIONS));
+        }
+        userResolver.require(userId);
+
+        Set<Long> ids = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = ids.isEmpty() ? Map.of() : bookingRepository
+                .findAllWithItemByIdInForUpdate(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        Map<Status, List<Booking>> transitions = new EnumMap<>(Status.class);
+        Set<Long> decided = new HashSet<>();
+        for (BookingDecisionDto decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            Booking booking = bookingId == null ? null : bookings.get(bookingId);
+            String error = null;
+            if (bookingId == null || decision.getApproved() == null) {
+                error = "Не указан идентификатор бронирования или решение.";
+            } else if (booking == null || !Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+                error = String.format("Бронирование с идентификатором %d не найдено у пользователя %d.",
+                        bookingId, userId);
+            } else if (!decided.add(bookingId)) {
+                error = String.format("Бронирование с идентификатором %d указано в запросе повторно.", bookingId);
+            } else if (booking.getStatus() != Status.WAITING) {
+                error = String.format("Статус бронирования уже установлен: %s.", booking.getStatus());
+            }
+            if (error != null) {
+                results.add(BookingDecisionResultDto.builder().bookingId(bookingId).error(error).build());
+                continue;
+            }
+            Status status = decision.getApproved() ? Status.APPROVED : Status.REJECTED;
+            transitions.computeIfAbsent(status, key -> new ArrayList<>()).add(booking);
+            results.add(BookingDecisionResultDto.builder().bookingId(bookingId).status(status.name()).build());
+        }
+
+        transitions.forEach((status, changed) -> {
+            bookingRepository.updateStatus(changed.stream().map(Booking::getId).toList(), Status.WAITING, status);
+            for (Booking booking : changed) {
+                booking.setStatus(status);
+                booking.setVersion(booking.getVersion() + 1);
+                bookingAvailabilityIndex.changeStatus(booking);
+                bookingExpiryScheduler.forget(booking.getId());
+                bookingSummaryCache.evict(booking.getBooker().getId(), userId);
+                outboxPublisher.publish(toEventType(status), booking.getId(),
+                        BookingMapper.toBookingEventDto(booking));
+            }
+        });
+        List<Long> approvedItemIds = transitions.getOrDefault(Status.APPROVED, List.of()).stream()
+                .map(booking -> booking.getItem().getId())
+                .distinct()
+                .toList();
+        if (!approvedItemIds.isEmpty()) {
+            itemSummaryService.refreshBookings(approvedItemIds);
+        }
+        return results;
     }
 
     @Override
@@ -82,9 +247,7 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(
                 () -> new NotFoundException(String.format("Бронирование с идентификатором %d не найдено.", bookingId)));
 
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException(String.format("Пользователь с id %d не найден.", userId));
-        }
+        userResolver.require(userId);
 
         if (!Objects.equals(booking.getBooker().getId(), userId) &&
                 !Objects.equals(booking.getItem().getOwner().getId(), userId)) {
@@ -96,47 +259,106 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> getAllByBooker(long userId, State state) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException(String.format("Пользователь с id %d не найден.", userId));
-        }
-
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
-            case CURRENT -> bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                            userId, LocalDateTime.now(), LocalDateTime.now());
-            case PAST -> bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
-            case FUTURE ->
-                    bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
+    public BookingPageDto getAllByBooker(long userId, State state, String cursor, Integer size) {
+        userResolver.require(userId);
+
+        ScrollPosition position = BookingCursor.positionOf(cursor);
+        Limit limit = toLimit(size);
+        Window<Booking> bookings = switch (state) {
+            case ALL -> bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(userId, position, limit);
+            case CURRENT, PAST, FUTURE -> bookingRepository.findAllByBookerIdAndPhaseOrderByStartDescIdDesc(
+                            userId, Phase.valueOf(state.name()), position, limit);
             case REJECTED, WAITING ->
-                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(
-                            userId, Status.valueOf(String.valueOf(state)));
+                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                            userId, Status.valueOf(String.valueOf(state)), position, limit);
         };
-        return bookings.stream().map(BookingMapper::toBookingDto).toList();
+        return toBookingPageDto(bookings);
     }
 
     @Override
-    public List<BookingDto> getAllByOwner(long userId, State state) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException(String.format("Пользователь с id %d не найден.", userId));
-        }
-
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId);
-            case CURRENT -> bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                            userId, LocalDateTime.now(), LocalDateTime.now());
-            case PAST ->
-                    bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
-            case FUTURE ->
-                    bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
+    @Transactional(readOnly = true)
+    public BookingPageDto getAllByOwner(long userId, State state, String cursor, Integer size) {
+        userResolver.require(userId);
+
+        ScrollPosition position = BookingCursor.positionOf(cursor);
+        Limit limit = toLimit(size);
+        Window<Booking> bookings = switch (state) {
+            case ALL -> bookingRepository.findAllByOwnerIdOrderByStartDescIdDesc(userId, position, limit);
+            case CURRENT, PAST, FUTURE -> bookingRepository.findAllByOwnerIdAndPhaseOrderByStartDescIdDesc(
+                            userId, Phase.valueOf(state.name()), position, limit);
             case REJECTED, WAITING ->
-                    bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(
-                            userId, Status.valueOf(String.valueOf(state)));
+                    bookingRepository.findAllByOwnerIdAndStatusOrderByStartDescIdDesc(
+                            userId, Status.valueOf(String.valueOf(state)), position, limit);
         };
-        return bookings.stream().map(BookingMapper::toBookingDto).toList();
+        return toBookingPageDto(bookings);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingSummaryDto getSummaryByBooker(long userId) {
+        userResolver.require(userId);
+        return bookingSummaryCache.getByBooker(userId, () -> bookingRepository.summarizeByBookerId(userId,
+                Phase.CURRENT, Phase.FUTURE, Phase.PAST, Status.WAITING, Status.REJECTED));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingSummaryDto getSummaryByOwner(long userId) {
+        userResolver.require(userId);
+        return bookingSummaryCache.getByOwner(userId, () -> bookingRepository.summarizeByItemOwnerId(userId,
+                Phase.CURRENT, Phase.FUTURE, Phase.PAST, Status.WAITING, Status.REJECTED));
+    }
+
+    @Override
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        userResolver.require(userId);
+        return bookingEventStream.subscribe(userId, lastEventId);
+    }
+
+    @Override
+    public StreamingResponseBody exportByOwner(long userId, ExportFormat format) {
+        userResolver.require(userId);
+        return out -> bookingExporter.exportByOwner(userId, format, out);
     }
 
-    private void validate(long userId, BookingCreateDto bookingCreateDto) {
+    private static EventType toEventType(Status status) {
+        return status == Status.APPROVED ? EventType.BOOKING_APPROVED : EventType.BOOKING_REJECTED;
+    }
+
+    private static Limit toLimit(Integer size) {
+        if (size == null) {
+            return Limit.unlimited();
+        }
+        if (size <= 0) {
+            throw new BadRequestException(String.format("Размер страницы должен быть положительным: %d.", size));
+        }
+        return Limit.of(size);
+    }
+
+    private static BookingPageDto toBookingPageDto(Window<Booking> bookings) {
+        String nextCursor = bookings.hasNext() && !bookings.isEmpty()
+                ? BookingCursor.of(bookings.getContent().get(bookings.size() - 1)).encode()
+                : null;
+        return new BookingPageDto(bookings.map(BookingMapper::toBookingDto).getContent(), nextCursor);
+    }
+
+    private Booking save(User booker, Item item, BookingCreateDto bookingCreateDto) {
+        Booking bookingForCreate = BookingMapper.toBooking(booker, item, bookingCreateDto);
+        bookingForCreate.setStatus(Status.WAITING);
+        LocalDateTime now = LocalDateTime.now();
+        bookingForCreate.setPhase(Phase.of(bookingForCreate.getStart(), bookingForCreate.getEnd(), now));
+        bookingForCreate.setApprovalDeadline(bookingExpiryScheduler.deadlineFor(bookingForCreate.getStart(), now));
+        Booking createdBooking = bookingRepository.save(bookingForCreate);
+        outboxPublisher.publish(EventType.BOOKING_CREATED, createdBooking.getId(),
+                BookingMapper.toBookingEventDto(createdBooking));
+        bookingAvailabilityIndex.reserve(createdBooking);
+        bookingPhaseScheduler.track(createdBooking);
+        bookingExpiryScheduler.track(createdBooking);
+        bookingSummaryCache.evict(booker.getId(), item.getOwner().getId());
+        return createdBooking;
+    }
+
+    private void validateDates(BookingCreateDto bookingCreateDto) {
         if (bookingCreateDto.getEnd().isBefore(LocalDateTime.now())) {
             throw new BadRequestException(String.format("Время завершения аренды %s раньше текущего времени $s.",
                     bookingCreateDto.getEnd(),
@@ -160,10 +382,12 @@ public class BookingServiceImpl implements BookingService {
                     bookingCreateDto.getEnd(),
                     bookingCreateDto.getStart()));
         }
+    }
 
-        Item item = itemRepository.findById(bookingCreateDto.getItemId()).orElseThrow(
-                () -> new NotFoundException(String.format("Вещь с идентификатором %d не найдена",
-                        bookingCreateDto.getItemId())));
+    private void validate(long userId, Item item, BookingCreateDto bookingCreateDto) {
+        if (item.getOwner().isDeleted()) {
+            throw new NotFoundException(String.format("Вещь с идентификатором %d не найдена", item.getId()));
+        }
 
         if (Objects.equals(item.getOwner().getId(), userId)) {
             throw new NotFoundException("Вещь забронирована.");
@@ -173,15 +397,8 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Вещь недоступна для бронирования: статус - FALSE.");
         }
 
-        if (bookingRepository.findById(item.getId())
-                .stream()
-                .anyMatch(booking -> (booking.getStart().isAfter(bookingCreateDto.getStart())
-                        && booking.getStart().isBefore(bookingCreateDto.getEnd())
-                        || booking.getEnd().isAfter(bookingCreateDto.getStart())
-                        && booking.getEnd().isBefore(bookingCreateDto.getEnd())))
-
-        ) {
-            throw new ValidationException("Даты начала и завершения аренды пересекаются с уже существующими.");
+        if (!bookingAvailabilityIndex.isFree(item.getId(), bookingCreateDto.getStart(), bookingCreateDto.getEnd())) {
+            throw new ConflictException("Даты начала и завершения аренды пересекаются с уже существующими.");
         }
     }
 }
\ No newline at end of file
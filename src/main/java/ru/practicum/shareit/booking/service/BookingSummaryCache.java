@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Короткоживущий кеш счётчиков бронирований по состояниям. Создание и подтверждение бронирования
+ * сбрасывают записи арендатора и владельца после коммита, а подсчёт, начатый до сброса, в кеш
+ * не попадает; переходы фаз и истечение сроков подтверждения становятся видны не позже чем через TTL.
+ * При переполнении вытесняется давно не запрошенная запись. При нулевом TTL кеш выключен.
+ */
+@Component
+public class BookingSummaryCache {
+    private final Duration ttl;
+    private final Map<Key, Entry> entries;
+    private long evictions;
+
+    public BookingSummaryCache(@Value("${shareit.booking.summary.cache-ttl:PT5S}") Duration ttl,
+                               @Value("${shareit.booking.summary.cache-size:10000}") int maxSize) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public BookingSummaryDto getByBooker(long userId, Supplier<BookingSummaryDto> loader) {
+        return get(new Key(Role.BOOKER, userId), loader);
+    }
+
+    public BookingSummaryDto getByOwner(long userId, Supplier<BookingSummaryDto> loader) {
+        return get(new Key(Role.OWNER, userId), loader);
+    }
+
+    public void evict(long bookerId, long ownerId) {
+        if (ttl.isZero()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (entries) {
+                entries.remove(new Key(Role.BOOKER, bookerId));
+                entries.remove(new Key(Role.OWNER, ownerId));
+                evictions++;
+            }
+        });
+    }
+
+    private BookingSummaryDto get(Key key, Supplier<BookingSummaryDto> loader) {
+        if (ttl.isZero()) {
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        Entry entry;
+        long evicted;
+        synchronized (entries) {
+            entry = entries.get(key);
+            evicted = evictions;
+        }
+        if (entry != null && now - entry.loadedAt() < ttl.toNanos()) {
+            return entry.summary();
+        }
+        BookingSummaryDto summary = loader.get();
+        synchronized (entries) {
+            if (evicted == evictions) {
+                entries.put(key, new Entry(summary, now));
+            }
+        }
+        return summary;
+    }
+
+    private enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private record Key(Role role, long userId) {
+    }
+
+    private record Entry(BookingSummaryDto summary, long loadedAt) {
+    }
+}
@@ -0,0 +1,246 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.outbox.dto.BookingEventDto;
+import ru.practicum.shareit.outbox.model.EventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxOffset;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.repository.OutboxOffsetRepository;
+import ru.practicum.shareit.outbox.service.OutboxRelay;
+import ru.practicum.shareit.outbox.service.OutboxSubscriber;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Поток SSE с событиями бронирований для арендатора и владельца вещи. События приходят из outbox,
+ * id события SSE совпадает с номером доставки события outbox, который растёт в порядке доставки,
+ * поэтому клиент может переподключиться с заголовком Last-Event-ID и получить пропущенное. Пропущенное читается
+ * страницами только по бронированиям пользователя и до номера, который ретранслятор уже присвоил на момент
+ * подключения: всё, что получит номер позже, придёт через {@link #handle}. Пропущенное отправляет та же задача
+ * на пуле, что разбирает очередь подключения, и только после того, как контроллер вернул emitter и ответ начал
+ * писаться: каждая отправка уходит в сокет и ждёт клиента, в памяти одна страница. Новые события тем временем
+ * копятся в ограниченной очереди подключения: если клиент не успевает её разбирать, подключение закрывается,
+ * и клиент догоняет через Last-Event-ID.
+ */
+@Slf4j
+@Component
+public class BookingEventStream implements OutboxSubscriber {
+    private static final Set<EventType> BOOKING_EVENTS = EnumSet.of(
+            EventType.BOOKING_CREATED, EventType.BOOKING_APPROVED, EventType.BOOKING_REJECTED);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor executor;
+    private final int bufferSize;
+    private final int replayPageSize;
+    private final Duration timeout;
+    private final ConcurrentMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public BookingEventStream(OutboxEventRepository outboxEventRepository,
+                              OutboxOffsetRepository outboxOffsetRepository,
+                              ObjectMapper objectMapper,
+                              @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                              @Value("${shareit.booking.stream.buffer-size:256}") int bufferSize,
+                              @Value("${shareit.booking.stream.replay-page-size:200}") int replayPageSize,
+                              @Value("${shareit.booking.stream.timeout:PT30M}") Duration timeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.replayPageSize = replayPageSize;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String name() {
+        return "booking-event-stream";
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        Subscription subscription = new Subscription(userId, lastEventId);
+        SseEmitter emitter = subscription.emitter;
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unregister(subscription));
+        return emitter;
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        for (OutboxEvent event : events) {
+            if (!BOOKING_EVENTS.contains(event.getType())) {
+                continue;
+            }
+            BookingEventDto booking = read(event);
+            deliver(booking.getBookerId(), event);
+            if (!Objects.equals(booking.getOwnerId(), booking.getBookerId())) {
+                deliver(booking.getOwnerId(), event);
+            }
+        }
+    }
+
+    private void deliver(Long userId, OutboxEvent event) {
+        Set<Subscription> userSubscriptions = userId == null ? null : subscriptions.get(userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    private void unregister(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private BookingEventDto read(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), BookingEventDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(String.format("Некорректное событие outbox %d.", event.getId()), e);
+        }
+    }
+
+    /**
+     * Последний номер доставки, который ретранслятор уже присвоил. Подписка регистрируется раньше,
+     * чем читается этот номер, поэтому события с большими номерами гарантированно придут через {@link #handle}.
+     */
+    private long sequenced() {
+        return outboxOffsetRepository.findById(OutboxRelay.SEQUENCER)
+                .map(OutboxOffset::getLastEventId)
+                .orElse(0L);
+    }
+
+    private final class Subscription {
+        private final long userId;
+        private final Long lastEventId;
+        private final SseEmitter emitter = new Emitter();
+        private final BlockingQueue<OutboxEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private volatile boolean replayed;
+        private volatile long lastSentId;
+
+        private Subscription(long userId, Long lastEventId) {
+            this.userId = userId;
+            this.lastEventId = lastEventId;
+        }
+
+        /**
+         * Вызывается, когда ответ уже начал писаться. До этого момента очередь копит события,
+         * а задача разбора не запускается: её флаг занят с создания подписки.
+         */
+        private void start() {
+            executor.execute(this::drain);
+        }
+
+        private void replay(long after, long until) throws IOException {
+            List<OutboxEvent> page;
+            do {
+                page = outboxEventRepository.findBookingEventsOfUser(userId, BOOKING_EVENTS, after, until,
+                        Limit.of(replayPageSize));
+                for (OutboxEvent event : page) {
+                    send(event);
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getDeliveryId();
+                }
+            } while (page.size() == replayPageSize);
+        }
+
+        private void offer(OutboxEvent event) {
+            if (!queue.offer(event)) {
+                log.warn("Подписчик {} не успевает получать события бронирований, поток закрыт", userId);
+                unregister(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (!replayed) {
+                    replayed = true;
+                    if (lastEventId != null) {
+                        replay(lastEventId, sequenced());
+                    }
+                }
+                OutboxEvent event;
+                while ((event = queue.poll()) != null) {
+                    if (event.getDeliveryId() > lastSentId) {
+                        send(event);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            scheduleDrain();
+        }
+
+        private void send(OutboxEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getDeliveryId()))
+                    .name(event.getType().name())
+                    .data(event.getPayload(), MediaType.APPLICATION_JSON));
+            lastSentId = event.getDeliveryId();
+        }
+
+        private void close(Exception e) {
+            unregister(this);
+            emitter.completeWithError(e);
+        }
+
+        private final class Emitter extends SseEmitter {
+            private Emitter() {
+                super(timeout.toMillis());
+            }
+
+            @Override
+            protected void extendResponse(ServerHttpResponse outputMessage) {
+                super.extendResponse(outputMessage);
+                start();
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
@@ -39,6 +41,20 @@ public class  ErrorHandler {
         return new ErrorResponse("Обнаружены совпадения", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT) // 409
+    public ErrorResponse handleDataIntegrityViolationException(final DataIntegrityViolationException e) {
+        log.error("Возникла ошибка. Нарушено ограничение целостности данных.");
+        return new ErrorResponse("Нарушено ограничение целостности данных", e.getMostSpecificCause().getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT) // 409
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        log.error("Возникла ошибка. Объект был изменён другим запросом.");
+        return new ErrorResponse("Объект был изменён другим запросом", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.FORBIDDEN) // 403
     public ErrorResponse handleNotOwnerException(final NotOwnerException e) {
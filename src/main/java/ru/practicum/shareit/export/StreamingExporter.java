@@ -0,0 +1,79 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка строк запроса в тело ответа. Запрос открывается в read-only транзакции и читается
+ * курсором JDBC, каждая строка сразу пишется в поток построчно, буфер сбрасывается каждые
+ * {@value #FLUSH_EVERY} строк. Запросы должны возвращать проекции, а не сущности, тогда контекст
+ * персистентности не растёт и память не зависит от размера выгрузки.
+ */
+@Component
+public class StreamingExporter {
+    private static final int FLUSH_EVERY = 500;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StreamingExporter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <T> void writeNdjson(Supplier<Stream<T>> rows, OutputStream out) throws IOException {
+        write(rows, null, objectMapper::writeValueAsString, out);
+    }
+
+    public <T> void write(Supplier<Stream<T>> rows, String header, LineFormat<T> format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> stream = rows.get()) {
+                    write(stream.iterator(), header, format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static <T> void write(Iterator<T> rows, String header, LineFormat<T> format, Writer writer)
+            throws IOException {
+        if (header != null) {
+            writer.write(header);
+            writer.write('\n');
+        }
+        int written = 0;
+        while (rows.hasNext()) {
+            writer.write(format.format(rows.next()));
+            writer.write('\n');
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LineFormat<T> {
+        String format(T row) throws IOException;
+    }
+}
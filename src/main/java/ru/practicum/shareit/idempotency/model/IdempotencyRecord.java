@@ -0,0 +1,29 @@
+package ru.practicum.shareit.idempotency.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@ToString
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "id")
+    private String id;
+    @Column(name = "request_hash", nullable = false)
+    private String requestHash;
+    @Column(name = "response", nullable = false)
+    private String response;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
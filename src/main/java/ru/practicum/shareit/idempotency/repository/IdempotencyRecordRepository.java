@@ -0,0 +1,19 @@
+package ru.practicum.shareit.idempotency.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord AS r WHERE r.expiresAt <= :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,192 @@
+package ru.practicum.shareit.idempotency.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Обработка заголовка Idempotency-Key. Ответ на первый запрос с ключом сохраняется в таблицу
+ * в той же транзакции, что и само действие, поэтому повтор после сбоя не выполнит действие дважды.
+ * Недавние ключи ищутся в ограниченном LRU-кеше, остальные - по первичному ключу таблицы.
+ * Одновременные повторы ждут результата первого запроса, а не выполняют действие сами.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Map<String, IdempotencyRecord> cache;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${shareit.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${shareit.idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                              @Value("${shareit.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public <T> T execute(long userId, String operation, String key, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(String.format("Некорректный ключ идемпотентности: %s.", key));
+        }
+        String id = userId + ":" + operation + ":" + key;
+        String requestHash = hash(request);
+
+        IdempotencyRecord stored = lookup(id);
+        if (stored != null) {
+            return replay(stored, requestHash, responseType);
+        }
+
+        CompletableFuture<IdempotencyRecord> own = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, own);
+        if (running != null) {
+            return replay(await(running, key), requestHash, responseType);
+        }
+        try {
+            stored = lookup(id);
+            if (stored != null) {
+                own.complete(stored);
+                return replay(stored, requestHash, responseType);
+            }
+            AtomicReference<T> response = new AtomicReference<>();
+            IdempotencyRecord created = transaction.execute(status -> {
+                response.set(action.get());
+                return idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                        .id(id)
+                        .requestHash(requestHash)
+                        .response(write(response.get()))
+                        .expiresAt(LocalDateTime.now().plus(ttl))
+                        .build());
+            });
+            remember(created);
+            own.complete(created);
+            return response.get();
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, own);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteAllExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Удалено {} просроченных ключей идемпотентности", deleted);
+        }
+    }
+
+    private IdempotencyRecord lookup(String id) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord cached;
+        synchronized (cache) {
+            cached = cache.get(id);
+        }
+        if (cached != null && cached.getExpiresAt().isAfter(now)) {
+            return cached;
+        }
+        IdempotencyRecord stored = idempotencyRecordRepository.findById(id)
+                .filter(record -> record.getExpiresAt().isAfter(now))
+                .orElse(null);
+        if (stored != null) {
+            remember(stored);
+        }
+        return stored;
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (cache) {
+            cache.put(record.getId(), record);
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running, String key) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException(String.format("Запрос с ключом идемпотентности %s ещё выполняется.", key));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException(String.format("Запрос с ключом идемпотентности %s ещё выполняется.", key));
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord stored, String requestHash, Class<T> responseType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new ConflictException("Ключ идемпотентности уже использован для другого запроса.");
+        }
+        try {
+            return objectMapper.readValue(stored.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(String.format("Некорректный сохранённый ответ для ключа %s.",
+                    stored.getId()), e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ для ключа идемпотентности.", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(write(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
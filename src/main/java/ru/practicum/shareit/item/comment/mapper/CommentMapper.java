@@ -5,6 +5,7 @@ import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.dto.CommentEventDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -28,4 +29,13 @@ public class CommentMapper {
                 .created(createdTime)
                 .build();
     }
-}
\ No newline at end of file
+
+    public static CommentEventDto toCommentEventDto(Comment comment) {
+        return CommentEventDto.builder()
+                .commentId(comment.getId())
+                .itemId(comment.getItem().getId())
+                .authorId(comment.getAuthor().getId())
+                .created(comment.getCreated())
+                .build();
+    }
+}
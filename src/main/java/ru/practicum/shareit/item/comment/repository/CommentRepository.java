@@ -1,20 +1,33 @@
 package ru.practicum.shareit.item.comment.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.comment.model.Comment;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.deletion.PurgedComment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     @EntityGraph(value = "comment-entity-graph")
-    List<Comment> findAllByItemId(long itemId);
+    List<Comment> findByItemIdIn(Collection<Long> itemIds, Sort created);
 
-    @EntityGraph(value = "comment-entity-graph")
-    List<Comment> findByItemIn(List<Item> allByOwnerId, Sort created);
+    @Query("SELECT DISTINCT c.item.id FROM Comment AS c WHERE c.author.id = :authorId AND c.item.id > :after " +
+            "ORDER BY c.item.id")
+    List<Long> findItemIdsByAuthorId(@Param("authorId") long authorId, @Param("after") long after, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.user.deletion.PurgedComment(c.id, i.id, i.owner.id) " +
+            "FROM Comment AS c LEFT JOIN c.item AS i WHERE c.author.id = :authorId")
+    List<PurgedComment> findPurgeableByAuthorId(@Param("authorId") long authorId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.user.deletion.PurgedComment(c.id, i.id, i.owner.id) " +
+            "FROM Comment AS c JOIN c.item AS i WHERE i.owner.id = :ownerId")
+    List<PurgedComment> findPurgeableByItemOwnerId(@Param("ownerId") long ownerId, Limit limit);
 }
\ No newline at end of file
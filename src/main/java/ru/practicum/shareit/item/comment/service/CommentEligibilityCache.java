@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.comment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пары (арендатор, вещь) с завершённым подтверждённым бронированием, то есть право оставить
+ * комментарий. Право не пропадает: завершённое бронирование уже не меняет статус и не становится
+ * снова текущим, поэтому кешируются только положительные ответы и без TTL. Пары добавляются,
+ * когда планировщик фаз переводит бронирования в PAST, и при первой успешной проверке в базе.
+ * Заполненный кеш перестаёт принимать новые пары, и для них остаётся индексированный запрос.
+ */
+@Component
+public class CommentEligibilityCache {
+    private final BookingRepository bookingRepository;
+    private final int maxSize;
+    private final Set<EligibleAuthor> eligible = ConcurrentHashMap.newKeySet();
+
+    public CommentEligibilityCache(BookingRepository bookingRepository,
+                                   @Value("${shareit.comment.eligibility.cache-size:100000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.maxSize = maxSize;
+    }
+
+    public boolean isEligible(long bookerId, long itemId) {
+        EligibleAuthor author = new EligibleAuthor(bookerId, itemId);
+        if (eligible.contains(author)) {
+            return true;
+        }
+        if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(bookerId, itemId, Status.APPROVED,
+                LocalDateTime.now())) {
+            return false;
+        }
+        remember(author);
+        return true;
+    }
+
+    public void finished(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty() || eligible.size() >= maxSize) {
+            return;
+        }
+        bookingRepository.findEligibleAuthorsByIdInAndStatus(bookingIds, Status.APPROVED).forEach(this::remember);
+    }
+
+    private void remember(EligibleAuthor author) {
+        if (eligible.size() < maxSize) {
+            eligible.add(author);
+        }
+    }
+}
@@ -3,8 +3,6 @@ package ru.practicum.shareit.item.comment.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
@@ -14,8 +12,11 @@ import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+import ru.practicum.shareit.outbox.model.EventType;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import java.time.LocalDateTime;
 
@@ -24,27 +25,30 @@ import java.time.LocalDateTime;
 public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
-    private final BookingRepository bookingRepository;
+    private final UserResolver userResolver;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final ItemSummaryService itemSummaryService;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
     @Transactional
     public CommentDto createComment(CommentCreateDto commentCreateDto, long userId) {
         long itemId = commentCreateDto.getItemId();
-        if (bookingRepository.findAllByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId, Status.APPROVED,
-                LocalDateTime.now()).isEmpty()) {
+        if (!commentEligibilityCache.isEligible(userId, itemId)) {
             throw new BadRequestException(String.format("Пользователь с id = {} не бронировал вещь c id = {}",
                     userId, itemId));
         }
 
-        User author = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException(String.format("Пользователь с id %d не найден.", userId)));
+        User author = userResolver.require(userId);
 
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new NotFoundException(String.format("Вещь с идентификатором %d не найдена", itemId)));
 
         Comment comment = CommentMapper.toComment(commentCreateDto, item, author, LocalDateTime.now());
         Comment newComment = commentRepository.save(comment);
+        itemSummaryService.addComment(newComment);
+        outboxPublisher.publish(EventType.COMMENT_CREATED, newComment.getId(),
+                CommentMapper.toCommentEventDto(newComment));
         return CommentMapper.toCommentDto(newComment);
     }
 }
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.comment.service;
+
+public record EligibleAuthor(long bookerId, long itemId) {
+}
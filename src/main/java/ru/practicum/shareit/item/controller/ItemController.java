@@ -4,15 +4,22 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.service.CommentService;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.web.ShareItHeaders;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -22,14 +29,17 @@ import java.util.List;
 public class ItemController {
     private final ItemService itemService;
     private final CommentService commentService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
     public ItemDto create(
             @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestHeader(name = ShareItHeaders.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody @Valid ItemCreateDto itemCreateDto) {
         log.info("Запрос на сохранение информации о новой вещи: POST /items");
-        ItemDto createdItem = itemService.create(itemCreateDto, userId);
+        ItemDto createdItem = idempotencyService.execute(userId, "POST /items", idempotencyKey, itemCreateDto,
+                ItemDto.class, () -> itemService.create(itemCreateDto, userId));
         log.info("Информация о новой вещи {} сохранена", createdItem.getName());
         return createdItem;
     }
@@ -53,11 +63,29 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getByText(@RequestParam(name = "text") String text) {
+    public ResponseEntity<List<ItemDto>> getByText(@RequestParam(name = "text") String text,
+                                                   @RequestParam(name = "cursor", required = false) String cursor,
+                                                   @RequestParam(name = "limit", required = false) Integer limit) {
         log.info("Запрос на поиск вещи по названию/описанию: GET /items/search ?text='{}'", text);
-        List<ItemDto> itemsBySearch = itemService.getByText(text);
-        log.info("Найдена информация о вещах: {}", itemsBySearch);
-        return itemsBySearch;
+        ItemSearchPageDto itemsBySearch = itemService.getByText(text, cursor, limit);
+        log.info("Найдена информация о вещах: {}", itemsBySearch.getItems());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (itemsBySearch.getNextCursor() != null) {
+            response.header(ShareItHeaders.NEXT_CURSOR_HEADER, itemsBySearch.getNextCursor());
+        }
+        return response.body(itemsBySearch.getItems());
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @PathVariable("itemId") long itemId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Запрос на получение занятости вещи: GET /items/{}/availability ?from={}&to={}", itemId, from, to);
+        ItemAvailabilityDto availability = itemService.getAvailability(itemId, from, to);
+        log.info("Получена занятость вещи {}: занято {}, свободно {} интервалов", itemId,
+                availability.getBusy().size(), availability.getFree().size());
+        return availability;
     }
 
     @PatchMapping("/{itemId}")
@@ -77,10 +105,12 @@ public class ItemController {
     @ResponseStatus(HttpStatus.OK)
     public CommentDto addComment(@RequestBody @Valid CommentCreateDto commentCreateDto,
                                  @RequestHeader("X-Sharer-User-Id") long userId,
+                                 @RequestHeader(name = ShareItHeaders.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                  @PathVariable long itemId) {
         log.info("Запрос на создание комментария к вещи: POST /items/{}/comment", itemId);
         commentCreateDto.setItemId(itemId);
-        CommentDto createdComment = commentService.createComment(commentCreateDto, userId);
+        CommentDto createdComment = idempotencyService.execute(userId, "POST /items/comment", idempotencyKey,
+                commentCreateDto, CommentDto.class, () -> commentService.createComment(commentCreateDto, userId));
         log.info("Комментарий к вещи с id = {} создан: ", itemId);
         log.info("Содержание комментария: {}", createdComment.toString());
         return createdComment;
@@ -1,9 +1,16 @@
 package ru.practicum.shareit.item.mapper;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.availability.BookingInterval;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class ItemMapper {
@@ -17,6 +24,16 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto toItemDto(ItemSearchIndex.IndexedItem item) {
+        return ItemDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .available(item.available())
+                .ownerId(item.ownerId())
+                .build();
+    }
+
     public static Item toItem(ItemCreateDto itemCreateDto) {
         return Item
                 .builder()
@@ -25,4 +42,32 @@ public class ItemMapper {
                 .available(itemCreateDto.getAvailable())
                 .build();
     }
+
+    public static ItemAvailabilityDto toItemAvailabilityDto(long itemId, LocalDateTime from, LocalDateTime to,
+                                                            List<BookingInterval> busyIntervals) {
+        List<ItemAvailabilityDto.Slot> busy = new ArrayList<>();
+        List<ItemAvailabilityDto.Slot> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (BookingInterval interval : busyIntervals) {
+            LocalDateTime start = interval.start().isBefore(from) ? from : interval.start();
+            LocalDateTime end = interval.end().isAfter(to) ? to : interval.end();
+            busy.add(new ItemAvailabilityDto.Slot(start, end, interval.status()));
+            if (start.isAfter(freeFrom)) {
+                free.add(new ItemAvailabilityDto.Slot(freeFrom, start, null));
+            }
+            if (end.isAfter(freeFrom)) {
+                freeFrom = end;
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new ItemAvailabilityDto.Slot(freeFrom, to, null));
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,11 +14,8 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwnerIdOrderByIdAsc(long ownerId);
 
-    @Query("""
-            SELECT it FROM Item AS it
-            WHERE(lower(it.name) like '%'||lower(:text)||'%' OR
-            lower(it.description) like '%'||lower(:text)||'%')
-            AND it.available = true
-            """)
-    List<Item> getByText(@Param("text") String text);
+    List<Item> findAllByAvailableTrueAndOwnerDeletedFalse();
+
+    @Query("SELECT i.id FROM Item AS i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") long ownerId, Limit limit);
 }
\ No newline at end of file
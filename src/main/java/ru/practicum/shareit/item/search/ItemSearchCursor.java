@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record ItemSearchCursor(int rank, long id) {
+    public static final int NAME_RANK = 0;
+    public static final int DESCRIPTION_RANK = 1;
+
+    public static ItemSearchCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            int rank = Integer.parseInt(parts[0]);
+            if (parts.length != 2 || rank < NAME_RANK || rank > DESCRIPTION_RANK) {
+                throw new IllegalArgumentException(cursor);
+            }
+            return new ItemSearchCursor(rank, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(String.format("Некорректный курсор поиска: %s.", cursor));
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((rank + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
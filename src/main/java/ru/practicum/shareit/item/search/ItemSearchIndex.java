@@ -0,0 +1,229 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Триграммный инвертированный индекс доступных вещей для поиска по названию и описанию.
+ * Повторяет семантику {@code lower(name) like '%text%' OR lower(description) like '%text%'}:
+ * триграммы запроса сужают множество кандидатов, а подстрока проверяется по каждому кандидату.
+ * Совпадения по названию идут раньше совпадений только по описанию, внутри группы - по id,
+ * поэтому страница после курсора продолжается с места остановки без OFFSET.
+ * <p>
+ * Снимок вещи берётся после коммита и несёт её версию: если колбэки двух коммитов одной вещи
+ * выполнятся не по порядку, более старый снимок отбрасывается. Полная перестройка собирает новый
+ * индекс в стороне и подменяет текущий, а изменения, пришедшие во время перестройки, применяются
+ * к обоим и повторяются на новом индексе перед подменой.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+
+    private volatile Postings postings = new Postings();
+    private List<Consumer<Postings>> missed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            missed = new ArrayList<>();
+        }
+        Postings rebuilt = new Postings();
+        try {
+            itemRepository.findAllByAvailableTrueAndOwnerDeletedFalse()
+                    .forEach(item -> rebuilt.apply(IndexedItem.of(item)));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                missed = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            missed.forEach(change -> change.accept(rebuilt));
+            missed = null;
+            postings = rebuilt;
+        }
+        log.info("Поисковый индекс вещей построен: {} доступных вещей", rebuilt.items.size());
+    }
+
+    public void index(Item item) {
+        TransactionCallbacks.afterCommit(() -> {
+            IndexedItem snapshot = IndexedItem.of(item);
+            update(current -> current.apply(snapshot));
+        });
+    }
+
+    public void removeByOwner(long ownerId) {
+        TransactionCallbacks.afterCommit(() -> update(current -> current.removeOwner(ownerId)));
+    }
+
+    public List<IndexedItem> search(String text, ItemSearchCursor after, int limit) {
+        Postings current = postings;
+        String query = text.toLowerCase(Locale.ROOT);
+        List<IndexedItem> found = new ArrayList<>();
+
+        if (after == null || after.rank() == ItemSearchCursor.NAME_RANK) {
+            NavigableSet<Long> byName = current.candidates(current.nameGrams, query);
+            collect(current, after == null ? byName : byName.tailSet(after.id(), false), limit, found,
+                    item -> item.searchName().contains(query));
+        }
+
+        if (found.size() < limit) {
+            NavigableSet<Long> byDescription = current.candidates(current.descriptionGrams, query);
+            boolean continued = after != null && after.rank() == ItemSearchCursor.DESCRIPTION_RANK;
+            collect(current, continued ? byDescription.tailSet(after.id(), false) : byDescription, limit, found,
+                    item -> !item.searchName().contains(query) && item.searchDescription().contains(query));
+        }
+        return found;
+    }
+
+    private static void collect(Postings current, Iterable<Long> ids, int limit, List<IndexedItem> found,
+                                Predicate<IndexedItem> matches) {
+        for (Long id : ids) {
+            if (found.size() >= limit) {
+                return;
+            }
+            IndexedItem item = current.items.get(id);
+            if (item != null && matches.test(item)) {
+                found.add(item);
+            }
+        }
+    }
+
+    private synchronized void update(Consumer<Postings> change) {
+        change.accept(postings);
+        if (missed != null) {
+            missed.add(change);
+        }
+    }
+
+    private static void link(ConcurrentMap<String, NavigableSet<Long>> postings, String text, long itemId) {
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, key -> new ConcurrentSkipListSet<>()).add(itemId);
+        }
+    }
+
+    private static void unlink(ConcurrentMap<String, NavigableSet<Long>> postings, String text, long itemId) {
+        for (String gram : grams(text)) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(itemId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Один экземпляр индекса. Меняется только под монитором {@link ItemSearchIndex}, читается без блокировок.
+     * Для каждой вещи помнит последнюю применённую версию, в том числе для убранных из индекса.
+     */
+    private static final class Postings {
+        private final ConcurrentNavigableMap<Long, IndexedItem> items = new ConcurrentSkipListMap<>();
+        private final ConcurrentMap<String, NavigableSet<Long>> nameGrams = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, NavigableSet<Long>> descriptionGrams = new ConcurrentHashMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        private void apply(IndexedItem snapshot) {
+            Long applied = versions.get(snapshot.id());
+            if (applied != null && applied >= snapshot.version()) {
+                return;
+            }
+            versions.put(snapshot.id(), snapshot.version());
+            if (snapshot.available()) {
+                put(snapshot);
+            } else {
+                remove(snapshot.id());
+            }
+        }
+
+        private void removeOwner(long ownerId) {
+            items.values().stream()
+                    .filter(item -> item.ownerId() == ownerId)
+                    .map(IndexedItem::id)
+                    .toList()
+                    .forEach(itemId -> {
+                        versions.put(itemId, Long.MAX_VALUE);
+                        remove(itemId);
+                    });
+        }
+
+        private void put(IndexedItem item) {
+            IndexedItem previous = items.put(item.id(), item);
+            if (previous != null) {
+                unlink(nameGrams, previous.searchName(), previous.id());
+                unlink(descriptionGrams, previous.searchDescription(), previous.id());
+            }
+            link(nameGrams, item.searchName(), item.id());
+            link(descriptionGrams, item.searchDescription(), item.id());
+        }
+
+        private void remove(long itemId) {
+            IndexedItem previous = items.remove(itemId);
+            if (previous != null) {
+                unlink(nameGrams, previous.searchName(), previous.id());
+                unlink(descriptionGrams, previous.searchDescription(), previous.id());
+            }
+        }
+
+        private NavigableSet<Long> candidates(ConcurrentMap<String, NavigableSet<Long>> grams, String query) {
+            if (query.length() < GRAM) {
+                return items.keySet();
+            }
+            NavigableSet<Long> smallest = null;
+            for (String gram : grams(query)) {
+                NavigableSet<Long> ids = grams.get(gram);
+                if (ids == null) {
+                    return Collections.emptyNavigableSet();
+                }
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+            return smallest;
+        }
+    }
+
+    public record IndexedItem(long id, long version, String name, String description, boolean available,
+                              long ownerId, String searchName, String searchDescription) {
+        static IndexedItem of(Item item) {
+            return new IndexedItem(
+                    item.getId(),
+                    item.getVersion() == null ? 0 : item.getVersion(),
+                    item.getName(),
+                    item.getDescription(),
+                    Boolean.TRUE.equals(item.getAvailable()),
+                    item.getOwner().getId(),
+                    item.getName().toLowerCase(Locale.ROOT),
+                    item.getDescription().toLowerCase(Locale.ROOT));
+        }
+
+        public int rank(String query) {
+            return searchName.contains(query) ? ItemSearchCursor.NAME_RANK : ItemSearchCursor.DESCRIPTION_RANK;
+        }
+    }
+}
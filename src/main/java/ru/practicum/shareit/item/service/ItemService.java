@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -13,7 +16,9 @@ public interface ItemService {
 
     List<ItemDto> getAllByOwnerId(long userId);
 
-    List<ItemDto> getByText(String text);
+    ItemSearchPageDto getByText(String text, String cursor, Integer limit);
 
     ItemDto update(ItemUpdateDto itemUpdateDto);
+
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
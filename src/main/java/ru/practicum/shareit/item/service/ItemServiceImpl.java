@@ -1,89 +1,106 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.BookingInterval;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.NotOwnerException;
-import ru.practicum.shareit.item.comment.dto.CommentDto;
-import ru.practicum.shareit.item.comment.mapper.CommentMapper;
-import ru.practicum.shareit.item.comment.model.Comment;
-import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.item.search.ItemSearchCursor;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.summary.dto.ItemSummaryDto;
+import ru.practicum.shareit.item.summary.model.ItemSummary;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toList;
 
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserResolver userResolver;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSummaryService itemSummaryService;
     private final BookingRepository bookingRepository;
-    private final CommentRepository commentRepository;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
 
     @Override
     @Transactional
     public ItemDto create(ItemCreateDto itemCreateDto, long userId) {
-        User itemOwner = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException(String.format("Пользователь с id %d не найден.", userId)));
+        User itemOwner = userResolver.require(userId);
         Item itemForCreate = ItemMapper.toItem(itemCreateDto);
         itemForCreate.setOwner(itemOwner);
         Item createdItem = itemRepository.save(itemForCreate);
+        itemSummaryService.create(createdItem);
+        itemSearchIndex.index(createdItem);
         return ItemMapper.toItemDto(createdItem);
     }
 
     @Override
-    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public ItemDto get(long itemId, long userId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(
+        ItemSummary summary = itemSummaryService.findWithItem(itemId).orElse(null);
+        Item item = summary != null ? summary.getItem() : itemRepository.findById(itemId).orElseThrow(
                 () -> new NotFoundException(String.format("Вещь с идентификатором %d не найдена", itemId)));
+        if (item.getOwner().isDeleted()) {
+            throw new NotFoundException(String.format("Вещь с идентификатором %d не найдена", itemId));
+        }
+        ItemSummaryDto view = itemSummaryService.getView(itemId, summary);
 
         if (!item.getOwner().getId().equals(userId)) {
-            return addCommentsWithoutBookingsToItem(item);
+            return addCommentsWithoutBookingsToItem(item, view);
         } else {
-            return addCommentsAndBookingsToItem(item);
+            return addCommentsAndBookingsToItem(item, view);
         }
     }
 
     @Override
-    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<ItemDto> getAllByOwnerId(long ownerId) {
-        checkUserExists(ownerId);
+        userResolver.require(ownerId);
         List<Item> items = itemRepository.findAllByOwnerIdOrderByIdAsc(ownerId);
-        return addCommentsAndBookingsToItems(items);
+        Map<Long, ItemSummaryDto> views = itemSummaryService.getViews(items.stream().map(Item::getId).toList());
+        return items.stream()
+                .map(item -> addCommentsAndBookingsToItem(item, views.get(item.getId())))
+                .toList();
     }
 
     @Override
-    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
-    public List<ItemDto> getByText(String text) {
-        if (text.isBlank() || text.isEmpty()) return List.of();
-        return itemRepository.getByText(text).stream().map(ItemMapper::toItemDto).toList();
+    public ItemSearchPageDto getByText(String text, String cursor, Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException(String.format("Размер страницы должен быть положительным: %d.", limit));
+        }
+        if (text.isBlank() || text.isEmpty()) return new ItemSearchPageDto(List.of(), null);
+
+        ItemSearchCursor after = cursor == null ? null : ItemSearchCursor.decode(cursor);
+        int pageSize = limit == null ? Integer.MAX_VALUE : limit;
+        List<ItemSearchIndex.IndexedItem> found = itemSearchIndex.search(text, after, pageSize);
+
+        String nextCursor = null;
+        if (limit != null && found.size() == limit) {
+            ItemSearchIndex.IndexedItem last = found.get(found.size() - 1);
+            nextCursor = new ItemSearchCursor(last.rank(text.toLowerCase(Locale.ROOT)), last.id()).encode();
+        }
+        return new ItemSearchPageDto(found.stream().map(ItemMapper::toItemDto).toList(), nextCursor);
     }
 
     @Override
     @Transactional
     public ItemDto update(ItemUpdateDto itemUpdateDto) {
-        checkUserExists(itemUpdateDto.getOwnerId());
+        userResolver.require(itemUpdateDto.getOwnerId());
         checkItemExists(itemUpdateDto.getId());
 
         Item item = itemRepository.findById(itemUpdateDto.getId()).orElseThrow(
@@ -98,13 +115,34 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(Objects.requireNonNullElse(itemUpdateDto.getAvailable(), item.getAvailable()));
         }
         Item updatedItem = itemRepository.save(item);
+        itemSearchIndex.index(updatedItem);
         return ItemMapper.toItemDto(updatedItem);
     }
 
-    private void checkUserExists(long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException(String.format("Пользователь с id %d не найден.", userId));
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException(String.format("Начало окна %s должно быть раньше его окончания %s.", from, to));
+        }
+        checkItemExists(itemId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingInterval> intervals = new HashMap<>();
+        if (from.isBefore(now)) {
+            bookingRepository.findAllByItemIdAndStatusInAndStartBeforeAndEndAfter(
+                            itemId, BookingAvailabilityIndex.BLOCKING_STATUSES, to.isBefore(now) ? to : now, from)
+                    .forEach(booking -> intervals.put(booking.getId(), BookingInterval.of(booking)));
         }
+        if (to.isAfter(now)) {
+            bookingAvailabilityIndex.busy(itemId, from.isAfter(now) ? from : now, to)
+                    .forEach(interval -> intervals.put(interval.bookingId(), interval));
+        }
+
+        List<BookingInterval> busy = intervals.values().stream()
+                .sorted(Comparator.comparing(BookingInterval::start).thenComparing(BookingInterval::bookingId))
+                .toList();
+        return ItemMapper.toItemAvailabilityDto(itemId, from, to, busy);
     }
 
     private void checkItemExists(long itemId) {
@@ -113,82 +151,21 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private ItemDto addCommentsWithoutBookingsToItem(Item item) {
+    private ItemDto addCommentsWithoutBookingsToItem(Item item, ItemSummaryDto view) {
         ItemDto itemDto = ItemMapper.toItemDto(item);
 
         itemDto.setLastBooking(null);
         itemDto.setNextBooking(null);
-        itemDto.setComments(commentRepository.findAllByItemId(itemDto.getId())
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .toList());
+        itemDto.setComments(view.getComments());
         return itemDto;
     }
 
-    private ItemDto addCommentsAndBookingsToItem(Item item) {
+    private ItemDto addCommentsAndBookingsToItem(Item item, ItemSummaryDto view) {
         ItemDto itemDto = ItemMapper.toItemDto(item);
 
-        itemDto.setLastBooking(bookingRepository
-                .findFirstByItemIdAndStartLessThanEqualAndStatus(
-                        itemDto.getId(), LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.DESC, "end"))
-                .map(BookingMapper::toBookingShortDto)
-                .orElse(null));
-
-        itemDto.setNextBooking(bookingRepository
-                .findFirstByItemIdAndStartAfterAndStatus(
-                        itemDto.getId(), LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.ASC, "end"))
-                .map(BookingMapper::toBookingShortDto)
-                .orElse(null));
-
-        itemDto.setComments(commentRepository.findAllByItemId(itemDto.getId())
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .toList());
-
+        itemDto.setLastBooking(view.getLastBooking());
+        itemDto.setNextBooking(view.getNextBooking());
+        itemDto.setComments(view.getComments());
         return itemDto;
     }
-
-    private List<ItemDto> addCommentsAndBookingsToItems(List<Item> items) {
-        List<ItemDto> itemDtoList = new ArrayList<>();
-
-        Map<Item, Booking> itemsWithLastBookings = bookingRepository
-                .findByItemInAndStartLessThanEqualAndStatus(
-                        items, LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.DESC, "end"))
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity(), (o1, o2) -> o1));
-
-        Map<Item, Booking> itemsWithNextBookings = bookingRepository
-                .findByItemInAndStartAfterAndStatus(
-                        items, LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.ASC, "end"))
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity(), (o1, o2) -> o1));
-
-        Map<Item, List<Comment>> itemsWithComments = commentRepository.findByItemIn(
-                items, Sort.by(Sort.Direction.DESC, "created"))
-                .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
-
-        for (Item item : items) {
-            ItemDto itemDto = ItemMapper.toItemDto(item);
-
-            Booking lastBooking = itemsWithLastBookings.get(item);
-            if (!itemsWithLastBookings.isEmpty() && lastBooking != null) {
-                itemDto.setLastBooking(BookingMapper.toBookingShortDto(lastBooking));
-            }
-
-            Booking nextBooking = itemsWithNextBookings.get(item);
-            if (!itemsWithNextBookings.isEmpty() && nextBooking != null) {
-                itemDto.setNextBooking(BookingMapper.toBookingShortDto(nextBooking));
-            }
-
-            List<CommentDto> commentDtos = itemsWithComments.getOrDefault(item, Collections.emptyList())
-                    .stream()
-                    .map(CommentMapper::toCommentDto)
-                    .toList();
-            itemDto.setComments(commentDtos);
-
-            itemDtoList.add(itemDto);
-        }
-        return itemDtoList;
-    }
 }
\ No newline at end of file
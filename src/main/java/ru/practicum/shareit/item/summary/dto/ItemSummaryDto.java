@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.summary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSummaryDto {
+    private BookingDto.BookingShortDto lastBooking;
+    private BookingDto.BookingShortDto nextBooking;
+    private long commentCount;
+    private List<CommentDto> comments;
+}
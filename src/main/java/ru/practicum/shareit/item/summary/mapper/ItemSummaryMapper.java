@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.summary.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.summary.model.BookingSnapshot;
+
+@Component
+public class ItemSummaryMapper {
+    public static BookingSnapshot toBookingSnapshot(BookingDto.BookingShortDto booking) {
+        if (booking == null) {
+            return null;
+        }
+        return BookingSnapshot.builder()
+                .bookingId(booking.getId())
+                .bookerId(booking.getBookerId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+
+    public static BookingDto.BookingShortDto toBookingShortDto(BookingSnapshot snapshot) {
+        if (snapshot == null || snapshot.getBookingId() == null) {
+            return null;
+        }
+        return BookingDto.BookingShortDto.builder()
+                .id(snapshot.getBookingId())
+                .bookerId(snapshot.getBookerId())
+                .start(snapshot.getStart())
+                .end(snapshot.getEnd())
+                .status(Status.APPROVED)
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.summary.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Embeddable
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSnapshot {
+    private Long bookingId;
+    private Long bookerId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.summary.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.item.model.Item;
+
+@Entity
+@Table(name = "item_summaries")
+@Getter
+@Setter
+@ToString
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    private Item item;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_start_time")),
+            @AttributeOverride(name = "end", column = @Column(name = "last_end_time"))
+    })
+    private BookingSnapshot lastBooking;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_start_time")),
+            @AttributeOverride(name = "end", column = @Column(name = "next_end_time"))
+    })
+    private BookingSnapshot nextBooking;
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+    @Column(name = "latest_comments")
+    private String latestComments;
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.summary.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.summary.model.ItemSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemSummaryRepository extends JpaRepository<ItemSummary, Long> {
+
+    @EntityGraph(attributePaths = {"item", "item.owner"})
+    Optional<ItemSummary> findWithItemByItemId(long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemSummary AS s WHERE s.itemId IN :itemIds ORDER BY s.itemId")
+    List<ItemSummary> findAllForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemSummary AS s WHERE s.nextBooking.start <= :now ORDER BY s.itemId")
+    List<Long> findItemIdsWithStartedNextBooking(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query("""
+            SELECT it.id FROM Item AS it
+            WHERE NOT EXISTS (SELECT s.itemId FROM ItemSummary AS s WHERE s.itemId = it.id)
+            ORDER BY it.id
+            """)
+    List<Long> findItemIdsWithoutSummary(Limit limit);
+}
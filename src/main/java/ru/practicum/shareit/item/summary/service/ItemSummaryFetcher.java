@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item.summary.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Читает данные для сводок вещей: последнее и следующее бронирование и комментарии.
+ * Вне транзакции в режиме SEQUENTIAL оба запроса идут в одной read-only транзакции
+ * REPEATABLE_READ и видят один снимок. В режиме CONCURRENT они выполняются параллельно,
+ * каждый в своей read-only транзакции, поэтому видят разные снимки; вызывающий поток в это
+ * время соединение не держит. Число одновременных запросов ограничено fetch-concurrency,
+ * по умолчанию половиной пула соединений, лишние ждут свободного слота. Внутри уже открытой
+ * транзакции запросы всегда выполняются последовательно на её соединении.
+ */
+@Slf4j
+@Component
+public class ItemSummaryFetcher {
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FetchMode mode;
+    private final SimpleAsyncTaskExecutor executor;
+    private final Timer sequentialTimer;
+    private final Timer concurrentTimer;
+
+    public ItemSummaryFetcher(BookingRepository bookingRepository,
+                              CommentRepository commentRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.item-summary.fetch-mode:SEQUENTIAL}") FetchMode mode,
+                              @Value("${shareit.item-summary.fetch-concurrency:0}") int concurrency,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.mode = mode;
+        this.executor = mode == FetchMode.CONCURRENT
+                ? boundedExecutor(concurrency > 0 ? concurrency : Math.max(1, poolSize / 2))
+                : null;
+        this.sequentialTimer = Timer.builder("shareit.item.summary.fetch")
+                .tag("mode", FetchMode.SEQUENTIAL.name())
+                .register(meterRegistry);
+        this.concurrentTimer = Timer.builder("shareit.item.summary.fetch")
+                .tag("mode", FetchMode.CONCURRENT.name())
+                .register(meterRegistry);
+    }
+
+    public Fetched fetch(Collection<Long> itemIds, LocalDateTime now) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return sequentialTimer.record(() -> new Fetched(fetchBookings(itemIds, now), findComments(itemIds)));
+        }
+        if (mode == FetchMode.CONCURRENT) {
+            return concurrentTimer.record(() -> {
+                CompletableFuture<LastAndNextBookings> bookings = supplyReadOnly(() -> fetchBookings(itemIds, now));
+                CompletableFuture<Map<Long, List<CommentDto>>> comments = supplyReadOnly(() -> findComments(itemIds));
+                try {
+                    return new Fetched(bookings.join(), comments.join());
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            });
+        }
+        return sequentialTimer.record(() -> readOnlyTransaction.execute(
+                status -> new Fetched(fetchBookings(itemIds, now), findComments(itemIds))));
+    }
+
+    public LastAndNextBookings fetchBookings(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, BookingDto.BookingShortDto> last = new HashMap<>();
+        Map<Long, BookingDto.BookingShortDto> next = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (Booking booking : bookingRepository.findLastAndNextApprovedByItemIds(itemIds, now)) {
+                (booking.getStart().isAfter(now) ? next : last)
+                        .put(booking.getItem().getId(), BookingMapper.toBookingShortDto(booking));
+            }
+        }
+        return new LastAndNextBookings(last, next);
+    }
+
+    /**
+     * Все комментарии вещей, от новых к старым. Вне транзакции читаются в своей read-only транзакции.
+     */
+    public Map<Long, List<CommentDto>> fetchComments(Collection<Long> itemIds) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return findComments(itemIds);
+        }
+        return readOnlyTransaction.execute(status -> findComments(itemIds));
+    }
+
+    private Map<Long, List<CommentDto>> findComments(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return commentRepository.findByItemIdIn(itemIds, Sort.by(Sort.Direction.DESC, "created", "id"))
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+    }
+
+    private <T> CompletableFuture<T> supplyReadOnly(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+    }
+
+    private static SimpleAsyncTaskExecutor boundedExecutor(int concurrency) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("item-summary-");
+        executor.setConcurrencyLimit(concurrency);
+        try {
+            executor.setVirtualThreads(true);
+        } catch (UnsupportedOperationException e) {
+            log.warn("Виртуальные потоки недоступны, запросы сводок выполняются на обычных потоках");
+        }
+        return executor;
+    }
+
+    public enum FetchMode {
+        SEQUENTIAL,
+        CONCURRENT
+    }
+
+    public record LastAndNextBookings(Map<Long, BookingDto.BookingShortDto> last,
+                                      Map<Long, BookingDto.BookingShortDto> next) {
+    }
+
+    public record Fetched(LastAndNextBookings bookings, Map<Long, List<CommentDto>> comments) {
+    }
+}
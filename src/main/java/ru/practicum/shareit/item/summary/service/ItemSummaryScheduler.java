@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.summary.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.summary.repository.ItemSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSummaryScheduler {
+    private static final int BATCH_SIZE = 500;
+
+    private final ItemSummaryRepository itemSummaryRepository;
+    private final ItemSummaryService itemSummaryService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        List<Long> itemIds = itemSummaryRepository.findItemIdsWithoutSummary(Limit.of(BATCH_SIZE));
+        while (!itemIds.isEmpty()) {
+            itemSummaryService.rebuild(itemIds);
+            total += itemIds.size();
+            itemIds = itemSummaryRepository.findItemIdsWithoutSummary(Limit.of(BATCH_SIZE));
+        }
+        log.info("Построены сводки для {} вещей", total);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-summary.rollover-interval:PT1M}")
+    public void rollOver() {
+        List<Long> itemIds = itemSummaryRepository.findItemIdsWithStartedNextBooking(
+                LocalDateTime.now(), Limit.of(BATCH_SIZE));
+        while (!itemIds.isEmpty()) {
+            itemSummaryService.refreshBookings(itemIds);
+            itemIds = itemSummaryRepository.findItemIdsWithStartedNextBooking(
+                    LocalDateTime.now(), Limit.of(BATCH_SIZE));
+        }
+    }
+}
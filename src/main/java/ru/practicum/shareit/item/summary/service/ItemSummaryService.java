@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.summary.service;
+
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.summary.dto.ItemSummaryDto;
+import ru.practicum.shareit.item.summary.model.ItemSummary;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ItemSummaryService {
+    void create(Item item);
+
+    Optional<ItemSummary> findWithItem(long itemId);
+
+    ItemSummaryDto getView(long itemId, ItemSummary summary);
+
+    Map<Long, ItemSummaryDto> getViews(Collection<Long> itemIds);
+
+    void refreshBookings(Collection<Long> itemIds);
+
+    void rebuild(Collection<Long> itemIds);
+
+    void addComment(Comment comment);
+}
@@ -0,0 +1,232 @@
+package ru.practicum.shareit.item.summary.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.dto.ItemSummaryDto;
+import ru.practicum.shareit.item.summary.mapper.ItemSummaryMapper;
+import ru.practicum.shareit.item.summary.model.BookingSnapshot;
+import ru.practicum.shareit.item.summary.model.ItemSummary;
+import ru.practicum.shareit.item.summary.repository.ItemSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ItemSummaryServiceImpl implements ItemSummaryService {
+    private static final TypeReference<List<CommentDto>> COMMENTS_TYPE = new TypeReference<>() {
+    };
+
+    private final ItemSummaryRepository itemSummaryRepository;
+    private final ItemRepository itemRepository;
+    private final ItemSummaryFetcher itemSummaryFetcher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shareit.item-summary.latest-comments:20}")
+    private int latestCommentsLimit;
+
+    @Override
+    @Transactional
+    public void create(Item item) {
+        itemSummaryRepository.save(ItemSummary.builder()
+                .item(item)
+                .commentCount(0)
+                .latestComments(writeComments(List.of()))
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ItemSummary> findWithItem(long itemId) {
+        return itemSummaryRepository.findWithItemByItemId(itemId);
+    }
+
+    @Override
+    public ItemSummaryDto getView(long itemId, ItemSummary summary) {
+        ItemSummaryDto view = summary == null ? null : toView(summary, LocalDateTime.now());
+        if (view == null) {
+            return compute(List.of(itemId)).get(itemId);
+        }
+        completeComments(Map.of(itemId, view));
+        return view;
+    }
+
+    @Override
+    public Map<Long, ItemSummaryDto> getViews(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemSummaryDto> views = new HashMap<>();
+        for (ItemSummary summary : itemSummaryRepository.findAllById(itemIds)) {
+            ItemSummaryDto view = toView(summary, now);
+            if (view != null) {
+                views.put(summary.getItemId(), view);
+            }
+        }
+
+        completeComments(views);
+
+        List<Long> outdated = itemIds.stream().filter(itemId -> !views.containsKey(itemId)).toList();
+        if (!outdated.isEmpty()) {
+            views.putAll(compute(outdated));
+        }
+        return views;
+    }
+
+    @Override
+    @Transactional
+    public void refreshBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemSummary> summaries = itemSummaryRepository.findAllForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(ItemSummary::getItemId, Function.identity()));
+        ItemSummaryFetcher.LastAndNextBookings bookings = itemSummaryFetcher.fetchBookings(
+                summaries.keySet(), LocalDateTime.now());
+
+        for (ItemSummary summary : summaries.values()) {
+            summary.setLastBooking(ItemSummaryMapper.toBookingSnapshot(bookings.last().get(summary.getItemId())));
+            summary.setNextBooking(ItemSummaryMapper.toBookingSnapshot(bookings.next().get(summary.getItemId())));
+        }
+
+        List<Long> missing = itemIds.stream().filter(itemId -> !summaries.containsKey(itemId)).toList();
+        if (!missing.isEmpty()) {
+            rebuild(missing);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void rebuild(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemSummary> summaries = itemSummaryRepository.findAllForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(ItemSummary::getItemId, Function.identity()));
+        Set<Long> existingItemIds = new HashSet<>(itemRepository.findAllById(itemIds).stream()
+                .map(Item::getId)
+                .toList());
+        Map<Long, ItemSummaryDto> views = compute(existingItemIds);
+
+        List<ItemSummary> changed = new ArrayList<>();
+        for (Long itemId : existingItemIds) {
+            ItemSummaryDto view = views.get(itemId);
+            ItemSummary summary = summaries.getOrDefault(itemId, ItemSummary.builder()
+                    .item(itemRepository.getReferenceById(itemId))
+                    .build());
+            summary.setLastBooking(ItemSummaryMapper.toBookingSnapshot(view.getLastBooking()));
+            summary.setNextBooking(ItemSummaryMapper.toBookingSnapshot(view.getNextBooking()));
+            summary.setCommentCount(view.getCommentCount());
+            summary.setLatestComments(writeComments(view.getComments().stream()
+                    .limit(latestCommentsLimit)
+                    .toList()));
+            changed.add(summary);
+        }
+        itemSummaryRepository.saveAll(changed);
+    }
+
+    @Override
+    @Transactional
+    public void addComment(Comment comment) {
+        long itemId = comment.getItem().getId();
+        List<ItemSummary> locked = itemSummaryRepository.findAllForUpdate(List.of(itemId));
+        if (locked.isEmpty()) {
+            rebuild(List.of(itemId));
+            return;
+        }
+
+        ItemSummary summary = locked.get(0);
+        List<CommentDto> comments = new ArrayList<>();
+        comments.add(CommentMapper.toCommentDto(comment));
+        comments.addAll(readComments(summary.getLatestComments()));
+        summary.setCommentCount(summary.getCommentCount() + 1);
+        summary.setLatestComments(writeComments(comments.stream().limit(latestCommentsLimit).toList()));
+    }
+
+    private ItemSummaryDto toView(ItemSummary summary, LocalDateTime now) {
+        BookingSnapshot next = summary.getNextBooking();
+        if (next != null && next.getStart() != null && !next.getStart().isAfter(now)) {
+            return null;
+        }
+
+        List<CommentDto> comments = readComments(summary.getLatestComments());
+        if (comments.size() < Math.min(summary.getCommentCount(), latestCommentsLimit)) {
+            return null;
+        }
+
+        return ItemSummaryDto.builder()
+                .lastBooking(ItemSummaryMapper.toBookingShortDto(summary.getLastBooking()))
+                .nextBooking(ItemSummaryMapper.toBookingShortDto(next))
+                .commentCount(summary.getCommentCount())
+                .comments(comments)
+                .build();
+    }
+
+    /**
+     * Сводка хранит только последние latest-comments комментариев, а ответ отдаёт все: у вещей,
+     * где комментариев больше, полный список дочитывается одним запросом на все такие вещи.
+     */
+    private void completeComments(Map<Long, ItemSummaryDto> views) {
+        List<Long> truncated = views.entrySet().stream()
+                .filter(entry -> entry.getValue().getComments().size() < entry.getValue().getCommentCount())
+                .map(Map.Entry::getKey)
+                .toList();
+        if (truncated.isEmpty()) {
+            return;
+        }
+        Map<Long, List<CommentDto>> comments = itemSummaryFetcher.fetchComments(truncated);
+        for (Long itemId : truncated) {
+            List<CommentDto> itemComments = comments.getOrDefault(itemId, List.of());
+            views.get(itemId).setComments(itemComments);
+            views.get(itemId).setCommentCount(itemComments.size());
+        }
+    }
+
+    private Map<Long, ItemSummaryDto> compute(Collection<Long> itemIds) {
+        Map<Long, ItemSummaryDto> views = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return views;
+        }
+        ItemSummaryFetcher.Fetched fetched = itemSummaryFetcher.fetch(itemIds, LocalDateTime.now());
+
+        for (Long itemId : itemIds) {
+            List<CommentDto> itemComments = fetched.comments().getOrDefault(itemId, List.of());
+            views.put(itemId, ItemSummaryDto.builder()
+                    .lastBooking(fetched.bookings().last().get(itemId))
+                    .nextBooking(fetched.bookings().next().get(itemId))
+                    .commentCount(itemComments.size())
+                    .comments(itemComments)
+                    .build());
+        }
+        return views;
+    }
+
+    private List<CommentDto> readComments(String json) {
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, COMMENTS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать комментарии из сводки вещи", e);
+        }
+    }
+
+    private String writeComments(List<CommentDto> comments) {
+        try {
+            return objectMapper.writeValueAsString(comments);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить комментарии в сводку вещи", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingEventDto {
+    private Long bookingId;
+    private Long itemId;
+    private Long bookerId;
+    private Long ownerId;
+    private String status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
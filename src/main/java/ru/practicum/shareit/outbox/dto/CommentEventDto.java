@@ -0,0 +1,19 @@
+package ru.practicum.shareit.outbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentEventDto {
+    private Long commentId;
+    private Long itemId;
+    private Long authorId;
+    private LocalDateTime created;
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.outbox.model;
+
+public enum EventType {
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_REJECTED,
+    COMMENT_CREATED
+}
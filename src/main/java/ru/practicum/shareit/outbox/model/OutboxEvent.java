@@ -0,0 +1,31 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@ToString
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType type;
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+    @Column(name = "payload", nullable = false)
+    private String payload;
+    @Column(name = "created_time", nullable = false)
+    private LocalDateTime created;
+    @Column(name = "delivery_id")
+    private Long deliveryId;
+}
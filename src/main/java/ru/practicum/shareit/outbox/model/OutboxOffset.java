@@ -0,0 +1,20 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "outbox_offsets")
+@Getter
+@Setter
+@ToString
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxOffset {
+    @Id
+    @Column(name = "subscriber")
+    private String subscriber;
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+}
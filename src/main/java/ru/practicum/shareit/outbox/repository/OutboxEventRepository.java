@@ -0,0 +1,33 @@
+package ru.practicum.shareit.outbox.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.EventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findAllByDeliveryIdIsNullOrderByIdAsc(Limit limit);
+
+    List<OutboxEvent> findAllByDeliveryIdGreaterThanOrderByDeliveryIdAsc(long deliveryId, Limit limit);
+
+    @Query("SELECT e FROM OutboxEvent AS e JOIN Booking AS b ON b.id = e.aggregateId "
+            + "WHERE e.type IN :types AND e.deliveryId > :after AND e.deliveryId <= :until "
+            + "AND (b.booker.id = :userId OR b.ownerId = :userId) "
+            + "ORDER BY e.deliveryId ASC")
+    List<OutboxEvent> findBookingEventsOfUser(@Param("userId") long userId,
+                                              @Param("types") Collection<EventType> types,
+                                              @Param("after") long after,
+                                              @Param("until") long until,
+                                              Limit limit);
+
+    @Query("SELECT e.id FROM OutboxEvent AS e WHERE e.deliveryId <= :deliveryId AND e.created < :time")
+    List<Long> findPurgeableIds(@Param("deliveryId") long deliveryId, @Param("time") LocalDateTime time, Limit limit);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.outbox.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.OutboxOffset;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxOffset AS o WHERE o.subscriber = :subscriber")
+    Optional<OutboxOffset> findBySubscriberForUpdate(@Param("subscriber") String subscriber);
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.outbox.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxOffset;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.repository.OutboxOffsetRepository;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Доставляет события outbox внутренним подписчикам пачками с гарантией "хотя бы один раз".
+ * Идентификаторы событий выдаются при вставке, а транзакции фиксируются в другом порядке, поэтому
+ * подписчики читают не по id: ретранслятор под блокировкой строки {@link #SEQUENCER} присваивает
+ * уже зафиксированным событиям номер доставки delivery_id подряд. Событие, чья транзакция
+ * зафиксировалась позже, просто получает следующий номер, и смещение подписчика по delivery_id
+ * его не пропустит. Смещение сохраняется только после успешной обработки пачки. Доставленные всем
+ * подписчикам события старше срока хранения удаляются. Смещение подписчика с {@link OutboxSubscriber#perInstance()}
+ * хранится под именем подписчика с суффиксом shareit.instance-id, по умолчанию это имя хоста.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    public static final String SEQUENCER = "outbox-sequencer";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final Duration retention;
+    private final String instanceId;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxOffsetRepository outboxOffsetRepository,
+                       List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.outbox.batch-size:200}") int batchSize,
+                       @Value("${shareit.outbox.retention:P7D}") Duration retention,
+                       @Value("${shareit.instance-id:}") String instanceId) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.subscribers = subscribers;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.instanceId = instanceId.isBlank() ? hostName() : instanceId;
+        log.info("Смещения подписчиков outbox этого экземпляра хранятся с суффиксом {}", this.instanceId);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay-interval:PT1S}")
+    public void relay() {
+        try {
+            sequence();
+        } catch (RuntimeException e) {
+            log.error("Ошибка нумерации событий outbox, повтор при следующем запуске", e);
+        }
+        for (OutboxSubscriber subscriber : subscribers) {
+            try {
+                relay(subscriber);
+            } catch (RuntimeException e) {
+                log.error("Ошибка доставки событий подписчику {}, повтор при следующем запуске",
+                        subscriber.name(), e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.purge-interval:PT1H}")
+    public void purge() {
+        long delivered = subscribers.stream()
+                .mapToLong(subscriber -> offset(subscriber).getLastEventId())
+                .min()
+                .orElseGet(() -> offset(SEQUENCER).getLastEventId());
+        LocalDateTime createdBefore = LocalDateTime.now().minus(retention);
+        int purged = 0;
+        List<Long> ids = outboxEventRepository.findPurgeableIds(delivered, createdBefore, Limit.of(batchSize));
+        while (!ids.isEmpty()) {
+            List<Long> batch = ids;
+            transaction.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(batch));
+            purged += batch.size();
+            ids = batch.size() < batchSize ? List.of()
+                    : outboxEventRepository.findPurgeableIds(delivered, createdBefore, Limit.of(batchSize));
+        }
+        if (purged > 0) {
+            log.info("Удалено {} доставленных событий outbox старше {}", purged, createdBefore);
+        }
+    }
+
+    private void sequence() {
+        Integer sequenced;
+        do {
+            sequenced = transaction.execute(status -> {
+                OutboxOffset sequencer = outboxOffsetRepository.findBySubscriberForUpdate(SEQUENCER)
+                        .orElseGet(() -> new OutboxOffset(SEQUENCER, 0L));
+                List<OutboxEvent> events = outboxEventRepository.findAllByDeliveryIdIsNullOrderByIdAsc(
+                        Limit.of(batchSize));
+                long deliveryId = sequencer.getLastEventId();
+                for (OutboxEvent event : events) {
+                    event.setDeliveryId(++deliveryId);
+                }
+                sequencer.setLastEventId(deliveryId);
+                outboxOffsetRepository.save(sequencer);
+                return events.size();
+            });
+        } while (sequenced != null && sequenced == batchSize);
+    }
+
+    private void relay(OutboxSubscriber subscriber) {
+        OutboxOffset offset = offset(subscriber);
+        List<OutboxEvent> events = nextBatch(offset);
+        while (!events.isEmpty()) {
+            subscriber.handle(events);
+            offset.setLastEventId(events.get(events.size() - 1).getDeliveryId());
+            offset = outboxOffsetRepository.save(offset);
+            events = events.size() < batchSize ? List.of() : nextBatch(offset);
+        }
+    }
+
+    private List<OutboxEvent> nextBatch(OutboxOffset offset) {
+        return outboxEventRepository.findAllByDeliveryIdGreaterThanOrderByDeliveryIdAsc(
+                offset.getLastEventId(), Limit.of(batchSize));
+    }
+
+    private OutboxOffset offset(OutboxSubscriber subscriber) {
+        if (!subscriber.perInstance()) {
+            return offset(subscriber.name());
+        }
+        String name = subscriber.name() + "@" + instanceId;
+        return outboxOffsetRepository.findById(name).orElseGet(() ->
+                outboxOffsetRepository.save(new OutboxOffset(name, offset(SEQUENCER).getLastEventId())));
+    }
+
+    private OutboxOffset offset(String name) {
+        return outboxOffsetRepository.findById(name).orElseGet(() -> new OutboxOffset(name, 0L));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Не удалось определить имя хоста, задайте shareit.instance-id", e);
+        }
+    }
+}
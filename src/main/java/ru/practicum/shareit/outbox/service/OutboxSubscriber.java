@@ -0,0 +1,25 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. События приходят пачками в порядке номера доставки delivery_id;
+ * после успешной обработки пачки ретранслятор сохраняет смещение подписчика. Исключение из {@link #handle} приводит
+ * к повторной доставке той же пачки, поэтому обработка должна быть идемпотентной.
+ */
+public interface OutboxSubscriber {
+    String name();
+
+    /**
+     * Подписчик держит состояние в памяти экземпляра приложения, поэтому каждый экземпляр должен получить
+     * все события: смещение хранится отдельно для каждого экземпляра, и новый экземпляр начинает с текущего
+     * номера доставки. Иначе смещение общее, и пачку обрабатывает экземпляр, который успел первым.
+     */
+    default boolean perInstance() {
+        return false;
+    }
+
+    void handle(List<OutboxEvent> events);
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Хешированное колесо таймеров: срок задачи округляется вверх до тика и попадает в корзину
+ * {@code tick % size} вместе с числом оставшихся оборотов колеса. Постановка и отмена выполняются
+ * за O(1), а продвижение на тик просматривает одну корзину: задачи текущего оборота срабатывают,
+ * у остальных уменьшается счётчик оборотов. Чтобы корзины не копили задачи далёких оборотов,
+ * владельцы колеса держат в нём только сроки в пределах {@link #horizon()} и дозагружают
+ * следующие по мере движения времени.
+ * На каждый ключ хранится не больше одной задачи: повторная постановка заменяет предыдущую.
+ */
+public class TimingWheel<K, V> {
+    private final long tickMillis;
+    private final List<Map<K, Timeout<V>>> buckets;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(Duration tick, int size, long nowMillis) {
+        if (tick.toMillis() <= 0 || size <= 0) {
+            throw new IllegalArgumentException("Тик и размер колеса таймеров должны быть положительными.");
+        }
+        this.tickMillis = tick.toMillis();
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    public Duration horizon() {
+        return Duration.ofMillis(tickMillis * buckets.size());
+    }
+
+    public synchronized void schedule(K key, V value, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        long rounds = (tick - currentTick - 1) / buckets.size();
+        buckets.get(bucket(tick)).put(key, new Timeout<>(rounds, value));
+        deadlines.put(key, tick);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Long tick = deadlines.remove(key);
+        if (tick == null) {
+            return false;
+        }
+        buckets.get(bucket(tick)).remove(key);
+        return true;
+    }
+
+    /**
+     * Продвигает колесо до {@code nowMillis} и возвращает сработавшие задачи. После паузы длиннее
+     * оборота каждая корзина просматривается один раз, а счётчик оборотов уменьшается на число
+     * пройденных за паузу тиков этой корзины.
+     */
+    public synchronized List<V> advance(long nowMillis) {
+        long steps = nowMillis / tickMillis - currentTick;
+        List<V> expired = new ArrayList<>();
+        for (long offset = 0; offset < Math.min(steps, buckets.size()); offset++) {
+            long passes = (steps - offset - 1) / buckets.size() + 1;
+            Iterator<Map.Entry<K, Timeout<V>>> timeouts = buckets.get(bucket(currentTick + offset + 1))
+                    .entrySet().iterator();
+            while (timeouts.hasNext()) {
+                Map.Entry<K, Timeout<V>> timeout = timeouts.next();
+                if (timeout.getValue().rounds() < passes) {
+                    expired.add(timeout.getValue().value());
+                    deadlines.remove(timeout.getKey());
+                    timeouts.remove();
+                } else {
+                    timeout.setValue(new Timeout<>(timeout.getValue().rounds() - passes, timeout.getValue().value()));
+                }
+            }
+        }
+        if (steps > 0) {
+            currentTick += steps;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    private int bucket(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+
+    private record Timeout<V>(long rounds, V value) {
+    }
+}
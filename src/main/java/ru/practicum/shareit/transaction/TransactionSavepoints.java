@@ -0,0 +1,62 @@
+package ru.practicum.shareit.transaction;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Точки сохранения JDBC внутри текущей транзакции JPA. JpaTransactionManager с Hibernate не поддерживает
+ * PROPAGATION_NESTED, поэтому точка ставится напрямую на соединении сессии. При ошибке изменения откатываются
+ * до точки, а сущности, попавшие в сессию после неё, отсоединяются, чтобы не записаться при фиксации.
+ * Колбэки транзакции, зарегистрированные внутри, при этом не вызываются. Исключение, прошедшее через
+ * транзакционный прокси (репозиторий, сервис с {@code @Transactional}), или ошибку самой базы Spring
+ * и Hibernate помечают как откат всей транзакции — её точка сохранения не спасает.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionSavepoints {
+    private final EntityManager entityManager;
+
+    public <T> T execute(Supplier<T> action) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Точка сохранения ставится только внутри транзакции.");
+        }
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        Set<Object> before = managedEntities(session);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        T result;
+        try {
+            result = action.get();
+            session.flush();
+        } catch (RuntimeException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            managedEntities(session).stream()
+                    .filter(entity -> !before.contains(entity))
+                    .forEach(session::detach);
+            throw e;
+        }
+        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+        return result;
+    }
+
+    private static Set<Object> managedEntities(Session session) {
+        Set<Object> entities = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Object, ?> entry : session.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            entities.add(entry.getKey());
+        }
+        return entities;
+    }
+}
@@ -4,11 +4,16 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.web.ShareItHeaders;
 
 import java.util.List;
 
@@ -37,11 +42,26 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> getAll() {
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(name = "after", required = false) Long after,
+                                                @RequestParam(name = "size", required = false) Integer size) {
         log.info("Запрос информации обо всех пользователях: GET /users");
-        List<UserDto> users = userService.getAll();
-        log.info("Получена информации обо всех {} пользователях", users.size());
-        return users;
+        UserPageDto users = userService.getAll(after, size);
+        log.info("Получена информации обо всех {} пользователях", users.getUsers().size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.getNextCursor() != null) {
+            response.header(ShareItHeaders.NEXT_CURSOR_HEADER, users.getNextCursor());
+        }
+        return response.body(users.getUsers());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @RequestParam(name = "after", required = false) Long after) {
+        log.info("Запрос на потоковую выгрузку пользователей после id = {}: GET /users", after);
+        StreamingResponseBody body = userService.exportAll(after);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PatchMapping("/{userId}")
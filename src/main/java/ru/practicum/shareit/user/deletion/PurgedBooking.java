@@ -0,0 +1,4 @@
+package ru.practicum.shareit.user.deletion;
+
+public record PurgedBooking(long id, long itemId, long bookerId, long ownerId) {
+}
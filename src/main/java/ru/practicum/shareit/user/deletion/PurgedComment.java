@@ -0,0 +1,4 @@
+package ru.practicum.shareit.user.deletion;
+
+public record PurgedComment(long id, Long itemId, Long ownerId) {
+}
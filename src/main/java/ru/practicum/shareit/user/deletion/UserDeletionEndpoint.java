@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user.deletion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "userdeletions")
+@RequiredArgsConstructor
+public class UserDeletionEndpoint {
+    private static final int PENDING_SAMPLE = 100;
+
+    private final UserDeletionJob userDeletionJob;
+
+    @ReadOperation
+    public Map<String, Object> deletions() {
+        return Map.of(
+                "pending", Map.of(
+                        "count", userDeletionJob.pendingCount(),
+                        "sample", userDeletionJob.pending(PENDING_SAMPLE)),
+                "active", userDeletionJob.active(),
+                "finished", userDeletionJob.finished());
+    }
+}
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.user.deletion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.expiry.BookingExpiryScheduler;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingSummaryCache;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновое удаление пользователей, помеченных удалёнными. Зависимые строки удаляются пачками
+ * в отдельных коротких транзакциях: комментарии пользователя и к его вещам, затем бронирования
+ * пользователя и его вещей, затем сами вещи и в конце строка пользователя. Поэтому таблица
+ * бронирований не блокируется надолго, а у comments.item_id без каскада не остаётся ссылок
+ * на удаляемые вещи. Прерванное удаление продолжается при следующем запуске, так как
+ * очередь - это сами помеченные строки users.
+ */
+@Slf4j
+@Component
+public class UserDeletionJob {
+    private static final int MAX_FINISHED = 100;
+
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemSummaryService itemSummaryService;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final BookingExpiryScheduler bookingExpiryScheduler;
+    private final BookingSummaryCache bookingSummaryCache;
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final ConcurrentMap<Long, UserDeletionProgress> active = new ConcurrentHashMap<>();
+    private final Deque<UserDeletionProgress> finished = new ArrayDeque<>();
+
+    public UserDeletionJob(UserRepository userRepository,
+                           CommentRepository commentRepository,
+                           BookingRepository bookingRepository,
+                           ItemRepository itemRepository,
+                           ItemSummaryService itemSummaryService,
+                           BookingAvailabilityIndex bookingAvailabilityIndex,
+                           BookingExpiryScheduler bookingExpiryScheduler,
+                           BookingSummaryCache bookingSummaryCache,
+                           @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.user.deletion.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.commentRepository = commentRepository;
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.itemSummaryService = itemSummaryService;
+        this.bookingAvailabilityIndex = bookingAvailabilityIndex;
+        this.bookingExpiryScheduler = bookingExpiryScheduler;
+        this.bookingSummaryCache = bookingSummaryCache;
+        this.executor = executor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public void requested(long userId) {
+        log.info("Пользователь с id {} помечен удалённым, зависимые данные будут удалены в фоне", userId);
+        TransactionCallbacks.afterCommit(this::trigger);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.deletion.interval:PT1M}")
+    public void trigger() {
+        requested.set(true);
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    public long pendingCount() {
+        return userRepository.countByDeletedTrue();
+    }
+
+    public List<Long> pending(int limit) {
+        return userRepository.findDeletedIds(Limit.of(limit));
+    }
+
+    public List<UserDeletionProgress> active() {
+        return List.copyOf(active.values());
+    }
+
+    public List<UserDeletionProgress> finished() {
+        synchronized (finished) {
+            return List.copyOf(finished);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (requested.getAndSet(false)) {
+                userRepository.findDeletedIds(Limit.unlimited()).forEach(this::purge);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка фонового удаления пользователей, повтор при следующем запуске", e);
+        } finally {
+            running.set(false);
+        }
+        if (requested.get()) {
+            trigger();
+        }
+    }
+
+    private void purge(long userId) {
+        UserDeletionProgress progress = active.computeIfAbsent(userId, UserDeletionProgress::new);
+        while (Boolean.TRUE.equals(transaction.execute(status -> purgeBatch(userId, progress)))) {
+            log.debug("Удаление пользователя {}: комментариев {}, бронирований {}, вещей {}", userId,
+                    progress.getCommentsDeleted(), progress.getBookingsDeleted(), progress.getItemsDeleted());
+        }
+        progress.finish();
+        active.remove(userId);
+        synchronized (finished) {
+            finished.addFirst(progress);
+            if (finished.size() > MAX_FINISHED) {
+                finished.removeLast();
+            }
+        }
+        log.info("Пользователь с id {} удалён: комментариев {}, бронирований {}, вещей {}", userId,
+                progress.getCommentsDeleted(), progress.getBookingsDeleted(), progress.getItemsDeleted());
+    }
+
+    private boolean purgeBatch(long userId, UserDeletionProgress progress) {
+        Limit limit = Limit.of(batchSize);
+        List<PurgedComment> comments = commentRepository.findPurgeableByAuthorId(userId, limit);
+        if (comments.isEmpty()) {
+            comments = commentRepository.findPurgeableByItemOwnerId(userId, limit);
+        }
+        if (!comments.isEmpty()) {
+            commentRepository.deleteAllByIdInBatch(comments.stream().map(PurgedComment::id).toList());
+            itemSummaryService.rebuild(comments.stream()
+                    .filter(comment -> comment.itemId() != null && !Objects.equals(comment.ownerId(), userId))
+                    .map(PurgedComment::itemId)
+                    .collect(Collectors.toSet()));
+            progress.addComments(comments.size());
+            return true;
+        }
+
+        List<PurgedBooking> bookings = bookingRepository.findPurgeableByBookerId(userId, limit);
+        if (bookings.isEmpty()) {
+            bookings = bookingRepository.findPurgeableByItemOwnerId(userId, limit);
+        }
+        if (!bookings.isEmpty()) {
+            bookingRepository.deleteAllByIdInBatch(bookings.stream().map(PurgedBooking::id).toList());
+            for (PurgedBooking booking : bookings) {
+                bookingAvailabilityIndex.release(booking.itemId(), booking.id());
+                bookingExpiryScheduler.forget(booking.id());
+                bookingSummaryCache.evict(booking.bookerId(), booking.ownerId());
+            }
+            Set<Long> otherItemIds = bookings.stream()
+                    .filter(booking -> booking.ownerId() != userId)
+                    .map(PurgedBooking::itemId)
+                    .collect(Collectors.toSet());
+            itemSummaryService.rebuild(otherItemIds);
+            progress.addBookings(bookings.size());
+            return true;
+        }
+
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(userId, limit);
+        if (!itemIds.isEmpty()) {
+            itemRepository.deleteAllByIdInBatch(itemIds);
+            progress.addItems(itemIds.size());
+            return true;
+        }
+
+        userRepository.deleteDeletedById(userId);
+        return false;
+    }
+}
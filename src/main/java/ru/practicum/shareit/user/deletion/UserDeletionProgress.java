@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user.deletion;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserDeletionProgress {
+    @Getter
+    private final long userId;
+    @Getter
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicLong commentsDeleted = new AtomicLong();
+    private final AtomicLong bookingsDeleted = new AtomicLong();
+    private final AtomicLong itemsDeleted = new AtomicLong();
+    @Getter
+    private volatile LocalDateTime finishedAt;
+
+    public UserDeletionProgress(long userId) {
+        this.userId = userId;
+    }
+
+    public long getCommentsDeleted() {
+        return commentsDeleted.get();
+    }
+
+    public long getBookingsDeleted() {
+        return bookingsDeleted.get();
+    }
+
+    public long getItemsDeleted() {
+        return itemsDeleted.get();
+    }
+
+    void addComments(int count) {
+        commentsDeleted.addAndGet(count);
+    }
+
+    void addBookings(int count) {
+        bookingsDeleted.addAndGet(count);
+    }
+
+    void addItems(int count) {
+        itemsDeleted.addAndGet(count);
+    }
+
+    void finish() {
+        finishedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.user.email;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Фильтр Блума по нормализованным адресам электронной почты. Ответ "нет" точен, поэтому
+ * для нового адреса проверка в базе не нужна; ответ "возможно" проверяется индексированным запросом.
+ * Адреса только добавляются: после удаления пользователя или смены адреса старое значение
+ * даёт лишь ложноположительный ответ. Уникальность всё равно гарантирует индекс в базе,
+ * фильтр только экономит запросы. До загрузки при старте фильтр на всё отвечает "возможно".
+ */
+@Slf4j
+@Component
+public class EmailFilter {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transaction;
+    private final AtomicLongArray bits;
+    private final long size;
+    private final int hashes;
+    private volatile boolean loaded;
+
+    public EmailFilter(UserRepository userRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.user.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                       @Value("${shareit.user.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setReadOnly(true);
+        long optimalSize = (long) Math.ceil(-Math.max(1, expectedInsertions) * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((Math.max(64, optimalSize) + 63) / 64));
+        this.size = bits.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) size / Math.max(1, expectedInsertions) * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long count = transaction.execute(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmailNormalized()) {
+                return emails.peek(this::add).count();
+            }
+        });
+        loaded = true;
+        log.info("Фильтр адресов электронной почты построен: {} адресов, {} бит, {} хеш-функций",
+                count, size, hashes);
+    }
+
+    public void add(String normalizedEmail) {
+        long hash = hash(normalizedEmail);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(first + i * second);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(String normalizedEmail) {
+        if (!loaded) {
+            return true;
+        }
+        long hash = hash(normalizedEmail);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(first + i * second);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined < 0 ? ~combined : combined) % size;
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
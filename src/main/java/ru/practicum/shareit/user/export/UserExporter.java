@@ -0,0 +1,25 @@
+package ru.practicum.shareit.user.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.export.StreamingExporter;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Потоковая выгрузка пользователей в NDJSON по возрастанию id. Проекция читается курсором
+ * через {@link StreamingExporter}, поэтому память не зависит от числа пользователей. Параметр after
+ * позволяет продолжить прерванную выгрузку с последнего полученного id.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserExporter {
+    private final UserRepository userRepository;
+    private final StreamingExporter streamingExporter;
+
+    public void exportAll(long after, OutputStream out) throws IOException {
+        streamingExporter.writeNdjson(() -> userRepository.streamAllByIdGreaterThan(after), out);
+    }
+}
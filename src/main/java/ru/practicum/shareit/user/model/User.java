@@ -3,6 +3,8 @@ package ru.practicum.shareit.user.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.Locale;
+
 @Entity
 @Table(name = "users")
 @Getter
@@ -13,10 +15,25 @@ import lombok.*;
 @NoArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     @Column(name = "name", nullable = false)
     private String name;
     @Column(name = "email", nullable = false, unique = true)
     private String email;
+    @Column(name = "email_normalized", unique = true)
+    private String emailNormalized;
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void normalize() {
+        emailNormalized = deleted ? null : normalizeEmail(email);
+    }
 }
\ No newline at end of file
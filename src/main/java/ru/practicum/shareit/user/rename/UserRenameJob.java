@@ -0,0 +1,98 @@
+package ru.practicum.shareit.user.rename;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Фоновое обновление сводок вещей после смены имени пользователя. Сводка хранит имена авторов
+ * последних комментариев, поэтому сводки вещей, которые комментировал пользователь, пересобираются
+ * пачками, каждая в своей транзакции, уже после коммита переименования. Очередь хранится в памяти:
+ * если приложение остановится раньше, старое имя останется в сводке до её следующей пересборки.
+ */
+@Slf4j
+@Component
+public class UserRenameJob {
+    private final CommentRepository commentRepository;
+    private final ItemSummaryService itemSummaryService;
+    private final AsyncTaskExecutor executor;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public UserRenameJob(CommentRepository commentRepository,
+                         ItemSummaryService itemSummaryService,
+                         @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                         @Value("${shareit.user.rename.batch-size:500}") int batchSize) {
+        this.commentRepository = commentRepository;
+        this.itemSummaryService = itemSummaryService;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    public void requested(long userId) {
+        TransactionCallbacks.afterCommit(() -> {
+            pending.add(userId);
+            trigger();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.rename.interval:PT1M}")
+    public void trigger() {
+        if (!pending.isEmpty() && running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        boolean failed = false;
+        try {
+            for (Iterator<Long> iterator = pending.iterator(); iterator.hasNext(); ) {
+                long userId = iterator.next();
+                iterator.remove();
+                try {
+                    rebuild(userId);
+                } catch (RuntimeException e) {
+                    pending.add(userId);
+                    failed = true;
+                    log.error("Ошибка обновления сводок после переименования пользователя {}, " +
+                            "повтор при следующем запуске", userId, e);
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        if (!failed) {
+            trigger();
+        }
+    }
+
+    private void rebuild(long userId) {
+        long after = 0;
+        int rebuilt = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = commentRepository.findItemIdsByAuthorId(userId, after, Limit.of(batchSize));
+            itemSummaryService.rebuild(itemIds);
+            rebuilt += itemIds.size();
+            if (!itemIds.isEmpty()) {
+                after = itemIds.get(itemIds.size() - 1);
+            }
+        } while (itemIds.size() == batchSize);
+        log.info("Сводки {} вещей обновлены после переименования пользователя {}", rebuilt, userId);
+    }
+}
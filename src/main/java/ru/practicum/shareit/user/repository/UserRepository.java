@@ -1,9 +1,56 @@
 package ru.practicum.shareit.user.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    boolean existsByEmailNormalizedAndIdNot(String emailNormalized, long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.emailNormalized FROM User AS u WHERE u.emailNormalized IS NOT NULL")
+    Stream<String> streamAllEmailNormalized();
+
+    Optional<User> findByIdAndDeletedFalse(long id);
+
+    List<User> findAllByIdInAndDeletedFalse(Collection<Long> ids);
+
+    List<User> findAllByIdGreaterThanAndDeletedFalseOrderByIdAsc(long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) " +
+            "FROM User AS u WHERE u.id > :after AND u.deleted = false ORDER BY u.id")
+    Stream<UserDto> streamAllByIdGreaterThan(@Param("after") long after);
+
+    @Modifying
+    @Query("UPDATE User AS u SET u.deleted = true, u.emailNormalized = NULL WHERE u.id = :id AND u.deleted = false")
+    int markDeleted(@Param("id") long id);
+
+    @Query("SELECT u.id FROM User AS u WHERE u.deleted = true ORDER BY u.id")
+    List<Long> findDeletedIds(Limit limit);
+
+    long countByDeletedTrue();
+
+    @Modifying
+    @Query("DELETE FROM User AS u WHERE u.id = :id AND u.deleted = true")
+    int deleteDeletedById(@Param("id") long id);
 }
\ No newline at end of file
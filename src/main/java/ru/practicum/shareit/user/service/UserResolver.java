@@ -0,0 +1,136 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Проверка и загрузка пользователя из X-Sharer-User-Id. В пределах HTTP-запроса пользователь
+ * загружается один раз, между запросами - берётся из кеша с TTL; при переполнении кеша вытесняется
+ * давно не запрошенный пользователь. Изменение и удаление пользователя сбрасывают запись после коммита,
+ * а загрузка, начатая до сброса, в кеш не попадает; изменения из других экземпляров приложения
+ * становятся видны не позже чем через TTL. Отсутствие пользователя между запросами не кешируется.
+ * Возвращаемый пользователь отсоединён от контекста персистентности и годится как ссылка в связях.
+ */
+@Component
+public class UserResolver {
+    private static final String REQUEST_ATTRIBUTE = UserResolver.class.getName();
+
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final Map<Long, Entry> entries;
+    private long evictions;
+
+    public UserResolver(UserRepository userRepository,
+                        @Value("${shareit.user.cache-ttl:PT30S}") Duration ttl,
+                        @Value("${shareit.user.cache-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public User require(long userId) {
+        return find(userId).orElseThrow(
+                () -> new NotFoundException(String.format("Пользователь с id %d не найден.", userId)));
+    }
+
+    public boolean exists(long userId) {
+        return find(userId).isPresent();
+    }
+
+    public void evict(long userId) {
+        Map<Long, Optional<User>> resolved = resolvedInRequest();
+        if (resolved != null) {
+            resolved.remove(userId);
+        }
+        remove(userId);
+        TransactionCallbacks.afterCommit(() -> remove(userId));
+    }
+
+    private Optional<User> find(long userId) {
+        Map<Long, Optional<User>> resolved = resolvedInRequest();
+        if (resolved == null) {
+            return load(userId);
+        }
+        Optional<User> user = resolved.get(userId);
+        if (user == null) {
+            user = load(userId);
+            resolved.put(userId, user);
+        }
+        return user;
+    }
+
+    private Optional<User> load(long userId) {
+        if (ttl.isZero()) {
+            return userRepository.findByIdAndDeletedFalse(userId).map(UserResolver::detach);
+        }
+        long now = System.nanoTime();
+        Entry entry;
+        long evicted;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            evicted = evictions;
+        }
+        if (entry != null && now - entry.loadedAt() < ttl.toNanos()) {
+            return Optional.of(entry.user());
+        }
+        Optional<User> user = userRepository.findByIdAndDeletedFalse(userId).map(UserResolver::detach);
+        synchronized (entries) {
+            if (user.isEmpty()) {
+                entries.remove(userId);
+            } else if (evicted == evictions) {
+                entries.put(userId, new Entry(user.get(), now));
+            }
+        }
+        return user;
+    }
+
+    private void remove(long userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+            evictions++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Optional<User>> resolvedInRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object resolved = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved == null) {
+            resolved = new HashMap<Long, Optional<User>>();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Long, Optional<User>>) resolved;
+    }
+
+    private static User detach(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .emailNormalized(user.getEmailNormalized())
+                .build();
+    }
+
+    private record Entry(User user, long loadedAt) {
+    }
+}
@@ -1,15 +1,17 @@
 package ru.practicum.shareit.user.service;
 
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 
-import java.util.List;
-
 public interface UserService {
     UserDto create(UserCreateDto userCreateDto);
 
-    List<UserDto> getAll();
+    UserPageDto getAll(Long after, Integer size);
+
+    StreamingResponseBody exportAll(Long after);
 
     UserDto get(long userId);
 
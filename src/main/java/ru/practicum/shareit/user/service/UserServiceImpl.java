@@ -1,54 +1,94 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.deletion.UserDeletionJob;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
+import ru.practicum.shareit.user.email.EmailFilter;
+import ru.practicum.shareit.user.export.UserExporter;
 import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.rename.UserRenameJob;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_INDEX = "users_email_normalized_uq";
+
     private final UserRepository userRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final EmailFilter emailFilter;
+    private final UserResolver userResolver;
+    private final UserExporter userExporter;
+    private final UserDeletionJob userDeletionJob;
+    private final UserRenameJob userRenameJob;
 
     @Override
     @Transactional
     public UserDto create(UserCreateDto userCreateDto) {
-        Set<String> emails = userRepository.findAll().stream().map(User::getEmail).collect(Collectors.toSet());
-
-        if (emails.contains(userCreateDto.getEmail())) {
+        String email = User.normalizeEmail(userCreateDto.getEmail());
+        if (emailFilter.mightContain(email) && userRepository.existsByEmailNormalized(email)) {
             throw new ConflictException(String.format("Пользователь с адресом электронной %s почты существует.",
                     userCreateDto.getEmail()));
         }
 
-        User user = userRepository.save(UserMapper.toUser(userCreateDto));
+        User user;
+        try {
+            user = userRepository.saveAndFlush(UserMapper.toUser(userCreateDto));
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConflict(e)) {
+                throw e;
+            }
+            throw new ConflictException(String.format("Пользователь с адресом электронной %s почты существует.",
+                    userCreateDto.getEmail()));
+        }
+        emailFilter.add(email);
         return UserMapper.toUserDto(user);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserDto> getAll() {
-        return userRepository.findAll()
-                .stream()
-                .map(UserMapper::toUserDto)
-                .collect(Collectors.toList());
+    public UserPageDto getAll(Long after, Integer size) {
+        if (size != null && size <= 0) {
+            throw new BadRequestException(String.format("Размер страницы должен быть положительным: %d.", size));
+        }
+        long from = Objects.requireNonNullElse(after, 0L);
+        List<User> users = userRepository.findAllByIdGreaterThanAndDeletedFalseOrderByIdAsc(from,
+                size == null ? Limit.unlimited() : Limit.of(size));
+        String nextCursor = size != null && users.size() == size
+                ? String.valueOf(users.get(users.size() - 1).getId())
+                : null;
+        return new UserPageDto(users.stream().map(UserMapper::toUserDto).collect(Collectors.toList()), nextCursor);
+    }
+
+    @Override
+    public StreamingResponseBody exportAll(Long after) {
+        long from = Objects.requireNonNullElse(after, 0L);
+        return out -> userExporter.exportAll(from, out);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserDto get(long userId) {
-        User user = userRepository.findById(userId).orElseThrow(
+        User user = userRepository.findByIdAndDeletedFalse(userId).orElseThrow(
                 () -> new NotFoundException(String.format("Пользователь с id %d не найден.", userId)));
         return UserMapper.toUserDto(user);
     }
@@ -56,24 +96,55 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto update(UserUpdateDto userUpdateDto) {
-        User user = userRepository.findById(userUpdateDto.getId()).orElseThrow(
+        User user = userRepository.findByIdAndDeletedFalse(userUpdateDto.getId()).orElseThrow(
                 () -> new NotFoundException(String.format("Пользователь с id %d не найден.", userUpdateDto.getId())));
 
-        Set<String> emails = userRepository.findAll().stream().map(User::getEmail).collect(Collectors.toSet());
-
-        if (emails.contains(userUpdateDto.getEmail()) && !user.getEmail().equals(userUpdateDto.getEmail())) {
+        String email = userUpdateDto.getEmail() == null ? null : User.normalizeEmail(userUpdateDto.getEmail());
+        if (email != null && !email.equals(user.getEmailNormalized()) && emailFilter.mightContain(email)
+                && userRepository.existsByEmailNormalizedAndIdNot(email, user.getId())) {
             throw new ConflictException(String.format("Пользователь с адресом электронной %s почты существует.",
                     userUpdateDto.getEmail()));
         }
 
+        String previousName = user.getName();
         user.setName(Objects.requireNonNullElse(userUpdateDto.getName(), user.getName()));
         user.setEmail(Objects.requireNonNullElse(userUpdateDto.getEmail(), user.getEmail()));
+        try {
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConflict(e)) {
+                throw e;
+            }
+            throw new ConflictException(String.format("Пользователь с адресом электронной %s почты существует.",
+                    userUpdateDto.getEmail()));
+        }
+        if (email != null) {
+            emailFilter.add(email);
+        }
+        userResolver.evict(user.getId());
+        if (!previousName.equals(user.getName())) {
+            userRenameJob.requested(user.getId());
+        }
         return UserMapper.toUserDto(user);
     }
 
     @Override
     @Transactional
     public void delete(long userId) {
-        userRepository.deleteById(userId);
+        if (userRepository.markDeleted(userId) == 0) {
+            return;
+        }
+        userResolver.evict(userId);
+        itemSearchIndex.removeByOwner(userId);
+        userDeletionJob.requested(userId);
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_INDEX);
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.web;
+
+/**
+ * Имена HTTP-заголовков, общих для всех контроллеров.
+ */
+public final class ShareItHeaders {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private ShareItHeaders() {
+    }
+}
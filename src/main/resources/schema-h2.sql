@@ -0,0 +1,11 @@
+ALTER SEQUENCE users_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + s.INCREMENT, s.BASE_VALUE)
+    FROM users, INFORMATION_SCHEMA.SEQUENCES s WHERE s.SEQUENCE_NAME = 'USERS_SEQ');
+
+ALTER SEQUENCE items_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + s.INCREMENT, s.BASE_VALUE)
+    FROM items, INFORMATION_SCHEMA.SEQUENCES s WHERE s.SEQUENCE_NAME = 'ITEMS_SEQ');
+
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + s.INCREMENT, s.BASE_VALUE)
+    FROM bookings, INFORMATION_SCHEMA.SEQUENCES s WHERE s.SEQUENCE_NAME = 'BOOKINGS_SEQ');
+
+ALTER SEQUENCE comments_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + s.INCREMENT, s.BASE_VALUE)
+    FROM comments, INFORMATION_SCHEMA.SEQUENCES s WHERE s.SEQUENCE_NAME = 'COMMENTS_SEQ');
@@ -0,0 +1,60 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE TABLE IF NOT EXISTS booking_overlap_rejections (
+    booking_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    kept_booking_id BIGINT NOT NULL,
+    rejected_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (booking_id)
+);
+
+DO '
+DECLARE
+    kept RECORD;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint
+               WHERE conrelid = ''bookings''::regclass AND conname = ''bookings_no_overlap'') THEN
+        RETURN;
+    END IF;
+
+    FOR kept IN
+        SELECT b.id, b.item_id, b.start_time, b.end_time,
+               CASE WHEN b.status = ''APPROVED'' THEN 0 ELSE 1 END AS priority
+        FROM bookings AS b
+        WHERE b.status IN (''WAITING'', ''APPROVED'') AND EXISTS (
+            SELECT 1 FROM bookings AS o
+            WHERE o.item_id = b.item_id AND o.id <> b.id AND o.status IN (''WAITING'', ''APPROVED'')
+                AND tsrange(o.start_time, o.end_time) && tsrange(b.start_time, b.end_time))
+        ORDER BY b.item_id, priority, b.id
+    LOOP
+        WITH rejected AS (
+            UPDATE bookings AS o SET status = ''REJECTED'', version = o.version + 1
+            WHERE o.item_id = kept.item_id AND o.status IN (''WAITING'', ''APPROVED'')
+                AND tsrange(o.start_time, o.end_time) && tsrange(kept.start_time, kept.end_time)
+                AND (CASE WHEN o.status = ''APPROVED'' THEN 0 ELSE 1 END, o.id) > (kept.priority, kept.id)
+                AND EXISTS (SELECT 1 FROM bookings AS k
+                            WHERE k.id = kept.id AND k.status IN (''WAITING'', ''APPROVED''))
+            RETURNING o.id, o.item_id
+        )
+        INSERT INTO booking_overlap_rejections (booking_id, item_id, kept_booking_id, rejected_at)
+        SELECT id, item_id, kept.id, LOCALTIMESTAMP FROM rejected;
+    END LOOP;
+
+    DELETE FROM item_summaries WHERE item_id IN (SELECT item_id FROM booking_overlap_rejections);
+
+    ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap EXCLUDE USING gist (
+        item_id WITH =,
+        tsrange(start_time, end_time) WITH &&
+    ) WHERE (status IN (''WAITING'', ''APPROVED''));
+END
+';
+
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM users_seq)));
+
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM items), (SELECT last_value FROM items_seq)));
+
+SELECT setval('bookings_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings), (SELECT last_value FROM bookings_seq)));
+
+SELECT setval('comments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM comments), (SELECT last_value FROM comments_seq)));
+
+CREATE INDEX IF NOT EXISTS users_deleted_idx ON users (id) WHERE deleted;
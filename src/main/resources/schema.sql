@@ -33,6 +33,102 @@ CREATE TABLE IF NOT EXISTS comments (
     PRIMARY KEY (id)
 );
 
+CREATE TABLE IF NOT EXISTS item_summaries (
+    item_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    last_start_time TIMESTAMP,
+    last_end_time TIMESTAMP,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_start_time TIMESTAMP,
+    next_end_time TIMESTAMP,
+    comment_count BIGINT NOT NULL DEFAULT 0,
+    latest_comments VARCHAR,
+    PRIMARY KEY (item_id)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    event_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR NOT NULL,
+    created_time TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    subscriber VARCHAR(100) NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    PRIMARY KEY (subscriber)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id VARCHAR(400) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response VARCHAR NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR NOT NULL DEFAULT 'FUTURE';
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS approval_deadline TIMESTAMP;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+
+UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items AS i WHERE i.id = bookings.item_id) WHERE owner_id IS NULL;
+
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS delivery_id BIGINT;
+
+UPDATE outbox_events SET delivery_id = id
+WHERE delivery_id IS NULL
+    AND id <= (SELECT MAX(o.last_event_id) FROM outbox_offsets AS o WHERE o.subscriber <> 'outbox-sequencer')
+    AND NOT EXISTS (SELECT 1 FROM outbox_offsets AS s WHERE s.subscriber = 'outbox-sequencer');
+
+INSERT INTO outbox_offsets (subscriber, last_event_id)
+SELECT 'outbox-sequencer', COALESCE(MAX(o.last_event_id), 0) FROM outbox_offsets AS o
+HAVING NOT EXISTS (SELECT 1 FROM outbox_offsets AS s WHERE s.subscriber = 'outbox-sequencer');
+
+DELETE FROM outbox_offsets WHERE subscriber = 'booking-event-stream';
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR (100);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted BOOL NOT NULL DEFAULT FALSE;
+
+CREATE TABLE IF NOT EXISTS user_email_conflicts (
+    user_id BIGINT NOT NULL,
+    email VARCHAR (100) NOT NULL,
+    kept_user_id BIGINT NOT NULL,
+    detected_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+INSERT INTO user_email_conflicts (user_id, email, kept_user_id, detected_at)
+SELECT u.id, u.email, MIN(k.id), LOCALTIMESTAMP
+FROM users AS u
+JOIN users AS k ON k.id <> u.id AND k.deleted = FALSE AND LOWER(TRIM(k.email)) = LOWER(TRIM(u.email))
+    AND (k.email_normalized IS NOT NULL OR k.id < u.id)
+WHERE u.email_normalized IS NULL AND u.deleted = FALSE
+    AND NOT EXISTS (SELECT 1 FROM user_email_conflicts AS c WHERE c.user_id = u.id)
+GROUP BY u.id, u.email;
+
+UPDATE users SET email_normalized = LOWER(TRIM(email))
+WHERE email_normalized IS NULL AND deleted = FALSE
+    AND id NOT IN (SELECT c.user_id FROM user_email_conflicts AS c);
+
 ALTER TABLE items ADD FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE;
 
 ALTER TABLE bookings ADD FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -41,4 +137,51 @@ ALTER TABLE bookings ADD FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE C
 
 ALTER TABLE comments ADD FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE;
 
-ALTER TABLE comments ADD FOREIGN KEY (item_id) REFERENCES items (id);
\ No newline at end of file
+ALTER TABLE comments ADD FOREIGN KEY (item_id) REFERENCES items (id);
+
+ALTER TABLE item_summaries ADD FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_time);
+
+CREATE INDEX IF NOT EXISTS item_summaries_next_start_idx ON item_summaries (next_start_time);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_phase_start_idx ON bookings (booker_id, phase, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_phase_start_idx ON bookings (item_id, phase, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_expires_idx ON idempotency_keys (expires_at);
+
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_normalized_uq ON users (email_normalized);
+
+CREATE INDEX IF NOT EXISTS users_deleted_idx ON users (deleted, id);
+
+CREATE INDEX IF NOT EXISTS comments_author_idx ON comments (author_id);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_item_status_end_idx ON bookings (booker_id, item_id, status, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_item_status_end_idx ON bookings (item_id, status, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_owner_start_idx ON bookings (owner_id, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_owner_phase_start_idx ON bookings (owner_id, phase, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_owner_status_start_idx ON bookings (owner_id, status, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_phase_start_idx ON bookings (phase, start_time);
+
+CREATE INDEX IF NOT EXISTS bookings_phase_end_idx ON bookings (phase, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_status_deadline_idx ON bookings (status, approval_deadline);
+
+CREATE UNIQUE INDEX IF NOT EXISTS outbox_events_delivery_uq ON outbox_events (delivery_id);
+CREATE INDEX IF NOT EXISTS outbox_events_aggregate_idx ON outbox_events (aggregate_id, delivery_id);
@@ -0,0 +1,40 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Замер для тестов с тегом benchmark: несколько прогревочных прогонов, затем медиана
+ * по измеренным. Запуск: mvn test -P benchmark.
+ */
+@Slf4j
+public final class Benchmarks {
+    public static final String TAG = "benchmark";
+
+    private Benchmarks() {
+    }
+
+    public static long medianNanos(String name, int warmups, int runs, Runnable body) {
+        for (int i = 0; i < warmups; i++) {
+            body.run();
+        }
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            body.run();
+            times[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(times);
+        long median = times[runs / 2];
+        log.info("BENCHMARK {}: медиана {} мкс, минимум {} мкс, максимум {} мкс ({} прогонов)",
+                name, median / 1000, times[0] / 1000, times[runs - 1] / 1000, runs);
+        return median;
+    }
+
+    public static void ratio(String name, long baselineNanos, long candidateNanos) {
+        log.info("BENCHMARK {}: ускорение {}x", name,
+                String.format(Locale.ROOT, "%.1f", (double) baselineNanos / Math.max(1, candidateNanos)));
+    }
+}
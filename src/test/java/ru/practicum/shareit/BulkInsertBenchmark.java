@@ -0,0 +1,112 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Массовая вставка пользователей, вещей, бронирований и комментариев одной транзакцией:
+ * с пакетной отправкой JDBC из настроек и с отправкой по одной строке.
+ */
+@Tag(Benchmarks.TAG)
+@ActiveProfiles("test")
+@SpringBootTest
+class BulkInsertBenchmark {
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong run = new AtomicLong();
+    private TransactionTemplate transaction;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@bulk.ru").build());
+        item = itemRepository.save(Item.builder().name("item").description("bulk").available(true).owner(owner).build());
+    }
+
+    @Test
+    void bulkInsertWithAndWithoutJdbcBatching() {
+        long before = bookingRepository.count();
+        insert(null);
+        assertThat(bookingRepository.count() - before).isEqualTo(ROWS);
+
+        long singleNanos = Benchmarks.medianNanos("вставка " + ROWS + " строк каждой сущности, по одной", 2, 9,
+                () -> insert(1));
+        long batchedNanos = Benchmarks.medianNanos("вставка " + ROWS + " строк каждой сущности, пакетами", 2, 9,
+                () -> insert(null));
+        Benchmarks.ratio("массовая вставка", singleNanos, batchedNanos);
+    }
+
+    /**
+     * @param batchSize размер пакета JDBC для сессии; null — значение hibernate.jdbc.batch_size
+     */
+    private void insert(Integer batchSize) {
+        long prefix = run.incrementAndGet();
+        String suffix = System.nanoTime() + "-" + prefix;
+        LocalDateTime base = LocalDateTime.now().withNano(0).plusYears(prefix);
+        transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<User> users = userRepository.saveAll(IntStream.range(0, ROWS)
+                    .mapToObj(i -> User.builder().name("user " + i).email("user" + i + "-" + suffix + "@bulk.ru").build())
+                    .toList());
+            itemRepository.saveAll(IntStream.range(0, ROWS)
+                    .mapToObj(i -> Item.builder().name("item " + i).description("bulk").available(true).owner(owner).build())
+                    .toList());
+            bookingRepository.saveAll(IntStream.range(0, ROWS)
+                    .mapToObj(i -> Booking.builder()
+                            .item(item)
+                            .booker(users.get(i))
+                            .start(base.plusHours(2L * i))
+                            .end(base.plusHours(2L * i + 1))
+                            .status(Status.APPROVED)
+                            .phase(Phase.FUTURE)
+                            .build())
+                    .toList());
+            commentRepository.saveAll(IntStream.range(0, ROWS)
+                    .mapToObj(i -> Comment.builder().text("comment " + i).item(item).author(users.get(i))
+                            .created(base).build())
+                    .toList());
+            entityManager.flush();
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingAvailabilityIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private BookingRepository bookingRepository;
+    private BookingAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any())).thenReturn(List.of());
+        index = new BookingAvailabilityIndex(bookingRepository);
+    }
+
+    @Test
+    void pruneDropsTimelinesWithoutActiveBookings() {
+        index.isFree(1, NOW.plusDays(1), NOW.plusDays(2));
+        index.reserve(booking(10, 2, NOW.minusDays(2), NOW.minusDays(1)));
+        index.reserve(booking(11, 3, NOW.plusDays(1), NOW.plusDays(2)));
+        assertThat(index.size()).isEqualTo(3);
+
+        index.prune();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.isFree(3, NOW.plusDays(1), NOW.plusDays(2))).isFalse();
+    }
+
+    @Test
+    void reloadsTimelineAfterPrune() {
+        index.isFree(1, NOW.plusDays(1), NOW.plusDays(2));
+        index.prune();
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any()))
+                .thenReturn(List.of(booking(12, 1, NOW.plusDays(1), NOW.plusDays(2))));
+
+        assertThat(index.isFree(1, NOW.plusDays(1), NOW.plusDays(2))).isFalse();
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any());
+    }
+
+    @Test
+    void loadDoesNotBlockOtherCallersOfItem() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any()))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return List.of(booking(13, 1, NOW.plusDays(1), NOW.plusDays(2)));
+                })
+                .thenReturn(List.of(booking(13, 1, NOW.plusDays(1), NOW.plusDays(2))));
+
+        CompletableFuture<Boolean> slow = CompletableFuture.supplyAsync(
+                () -> index.isFree(1, NOW.plusDays(1), NOW.plusDays(2)));
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(index.isFree(1, NOW.plusDays(1), NOW.plusDays(2))).isFalse();
+        index.reserve(booking(14, 1, NOW.plusDays(3), NOW.plusDays(4)));
+        release.countDown();
+
+        assertThat(slow.get(10, TimeUnit.SECONDS)).isFalse();
+        assertThat(index.isFree(1, NOW.plusDays(3), NOW.plusDays(4))).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static Booking booking(long id, long itemId, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(itemId).build())
+                .start(start)
+                .end(end)
+                .status(Status.APPROVED)
+                .build();
+    }
+}
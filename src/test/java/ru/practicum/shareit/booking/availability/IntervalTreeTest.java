@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void treatsIntervalsAsHalfOpen() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(interval(1, 10, 20));
+
+        assertThat(tree.overlapsAny(at(20), at(30))).isFalse();
+        assertThat(tree.overlapsAny(at(0), at(10))).isFalse();
+        assertThat(tree.overlapsAny(at(19), at(30))).isTrue();
+        assertThat(tree.overlapsAny(at(12), at(13))).isTrue();
+        assertThat(tree.overlapsAny(at(0), at(40))).isTrue();
+    }
+
+    @Test
+    void findsOverlapHiddenBehindLongIntervalAfterRotations() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(interval(1, 0, 1000));
+        for (int i = 1; i <= 64; i++) {
+            tree.insert(interval(i + 1, 10 * i, 10 * i + 5));
+        }
+
+        assertThat(tree.overlapsAny(at(996), at(999))).isTrue();
+        assertThat(tree.overlapping(at(996), at(999))).extracting(BookingInterval::bookingId).containsExactly(1L);
+        assertThat(tree.overlapping(at(635), at(641))).extracting(BookingInterval::bookingId)
+                .containsExactly(1L, 65L);
+        assertThat(tree.overlapsAny(at(1000), at(2000))).isFalse();
+    }
+
+    @Test
+    void staysBalancedForSortedInsertsAndRemovals() {
+        IntervalTree tree = new IntervalTree();
+        int count = 4096;
+        for (int i = 0; i < count; i++) {
+            tree.insert(interval(i, 2 * i, 2 * i + 1));
+        }
+        assertThat(tree.size()).isEqualTo(count);
+        assertThat(tree.height()).isLessThanOrEqualTo(maxAvlHeight(count));
+
+        for (int i = 0; i < count / 2; i++) {
+            tree.remove(interval(i, 2 * i, 2 * i + 1));
+        }
+        assertThat(tree.size()).isEqualTo(count / 2);
+        assertThat(tree.height()).isLessThanOrEqualTo(maxAvlHeight(count / 2));
+        assertThat(tree.overlapsAny(at(0), at(count - 1))).isFalse();
+        assertThat(tree.overlapsAny(at(count), at(count + 1))).isTrue();
+    }
+
+    @Test
+    void rejectsRemovalOfMissingInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(interval(1, 0, 10));
+
+        assertThatThrownBy(() -> tree.remove(interval(2, 0, 10))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(tree.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesLinearScanUnderRandomInsertsAndRemovals() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<BookingInterval> expected = new ArrayList<>();
+        long nextId = 1;
+
+        for (int step = 0; step < 5_000; step++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(10_000);
+                BookingInterval added = interval(nextId++, start, start + 1 + random.nextInt(200));
+                tree.insert(added);
+                expected.add(added);
+            } else {
+                tree.remove(expected.remove(random.nextInt(expected.size())));
+            }
+
+            int from = random.nextInt(10_200);
+            int to = from + 1 + random.nextInt(300);
+            List<BookingInterval> overlapping = expected.stream()
+                    .filter(interval -> interval.overlaps(at(from), at(to)))
+                    .sorted(Comparator.comparing(BookingInterval::start).thenComparingLong(BookingInterval::bookingId))
+                    .toList();
+            assertThat(tree.overlapsAny(at(from), at(to))).isEqualTo(!overlapping.isEmpty());
+            assertThat(tree.overlapping(at(from), at(to))).isEqualTo(overlapping);
+
+            if (step % 500 == 0) {
+                assertThat(tree.endedBy(at(from))).containsExactlyInAnyOrderElementsOf(expected.stream()
+                        .filter(interval -> !interval.end().isAfter(at(from)))
+                        .toList());
+                assertThat(tree.height()).isLessThanOrEqualTo(maxAvlHeight(expected.size()));
+            }
+        }
+        assertThat(tree.size()).isEqualTo(expected.size());
+    }
+
+    private static int maxAvlHeight(int size) {
+        return (int) Math.floor(1.45 * Math.log(size + 2) / Math.log(2));
+    }
+
+    private static BookingInterval interval(long id, int startMinute, int endMinute) {
+        return new BookingInterval(id, at(startMinute), at(endMinute), Status.APPROVED);
+    }
+
+    private static LocalDateTime at(int minute) {
+        return BASE.plusMinutes(minute);
+    }
+}
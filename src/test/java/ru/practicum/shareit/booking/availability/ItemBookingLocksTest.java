@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.availability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemBookingLocksTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ItemBookingLocks locks;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        locks = new ItemBookingLocks(1, Duration.ofMillis(100), meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void timesOutWhileStripeIsHeldUntilCompletion() throws Exception {
+        locks.lockUntilCompletion(1);
+
+        assertThatThrownBy(() -> CompletableFuture.runAsync(() -> locks.lockUntilCompletion(2))
+                .get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ConflictException.class);
+        assertThat(meterRegistry.counter("shareit.booking.lock.timeouts").count()).isEqualTo(1);
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_COMMITTED);
+
+        CompletableFuture.runAsync(() -> locks.lockUntilCompletion(2)).get(10, TimeUnit.SECONDS);
+        assertThat(meterRegistry.counter("shareit.booking.lock.timeouts").count()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesAfterRollbackToo() throws Exception {
+        locks.lockUntilCompletion(1);
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        CompletableFuture.runAsync(() -> locks.lockUntilCompletion(1)).get(10, TimeUnit.SECONDS);
+        assertThat(meterRegistry.counter("shareit.booking.lock.timeouts").count()).isZero();
+    }
+}
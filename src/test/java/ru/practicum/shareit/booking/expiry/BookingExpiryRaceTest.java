@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Истечение срока подтверждения и решение владельца по одному бронированию: кто первым
+ * заблокировал строку, тот и меняет статус, а второй видит уже изменённое бронирование.
+ * Планировщик создаётся в тесте с мелким тиком, чтобы срок наступал по команде.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingExpiryRaceTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CountDownLatch expiring = new CountDownLatch(1);
+    private final CountDownLatch proceed = new CountDownLatch(1);
+    private User owner;
+    private BookingDto booking;
+    private BookingExpiryScheduler expiry;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@expiry.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@expiry.ru")
+                .build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("expiry").available(true)
+                .owner(owner).build());
+        booking = bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        BookingAvailabilityIndex index = spy(bookingAvailabilityIndex);
+        doAnswer(invocation -> {
+            expiring.countDown();
+            proceed.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(index).release(anyLong(), anyLong());
+        expiry = new BookingExpiryScheduler(bookingRepository, index, outboxPublisher, transactionManager,
+                Duration.ofDays(1), Duration.ofMillis(10), 64);
+        Booking overdue = bookingRepository.findWithItemAndBookerById(booking.getId()).orElseThrow();
+        overdue.setApprovalDeadline(LocalDateTime.now().minusMinutes(1));
+        expiry.track(overdue);
+    }
+
+    @Test
+    void approveAfterExpiryLockedRowConflicts() throws Exception {
+        CompletableFuture<Void> ticking = CompletableFuture.runAsync(this::tickWhenDue);
+        assertThat(expiring.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<BookingDto> approving = CompletableFuture.supplyAsync(() ->
+                bookingService.approvedByOwner(owner.getId(), booking.getId(), true));
+        Thread.sleep(200);
+        proceed.countDown();
+        ticking.get(10, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> approving.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ConflictException.class);
+        assertThat(status()).isEqualTo(Status.REJECTED);
+        assertThat(isFree()).isTrue();
+    }
+
+    @Test
+    void expiryAfterApproveLockedRowKeepsApproval() throws Exception {
+        CountDownLatch approved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<BookingDto> approving = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    BookingDto result = bookingService.approvedByOwner(owner.getId(), booking.getId(), true);
+                    approved.countDown();
+                    await(commit);
+                    return result;
+                }));
+        assertThat(approved.await(10, TimeUnit.SECONDS)).isTrue();
+
+        proceed.countDown();
+        CompletableFuture<Void> ticking = CompletableFuture.runAsync(this::tickWhenDue);
+        Thread.sleep(200);
+        commit.countDown();
+        approving.get(10, TimeUnit.SECONDS);
+        ticking.get(10, TimeUnit.SECONDS);
+        tickWhenDue();
+
+        assertThat(expiring.getCount()).isEqualTo(1);
+        assertThat(status()).isEqualTo(Status.APPROVED);
+        assertThat(isFree()).isFalse();
+    }
+
+    private void tickWhenDue() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        expiry.tick();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Status status() {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+
+    private boolean isFree() {
+        return bookingAvailabilityIndex.isFree(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Выгрузка содержит только бронирования вещей владельца, от новых к старым; в CSV значения
+ * с запятыми и кавычками экранируются, в NDJSON каждая строка - отдельный JSON-объект.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingExportTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private User booker;
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@export.ru").build());
+        User stranger = userRepository.save(User.builder().name("stranger").email("stranger" + suffix + "@export.ru")
+                .build());
+        booker = userRepository.save(User.builder().name("Smith, \"Jr\"").email("booker" + suffix + "@export.ru")
+                .build());
+        Item drill = item(owner, "drill, cordless");
+        Item saw = item(owner, "saw");
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        newestFirst.add(0, book(drill, base));
+        newestFirst.add(0, book(saw, base.plusDays(1)));
+        newestFirst.add(0, book(drill, base.plusDays(2)));
+        book(item(stranger, "tent"), base);
+    }
+
+    @Test
+    void exportsOwnerBookingsAsCsv() throws Exception {
+        List<String> lines = export(ExportFormat.CSV);
+
+        assertThat(lines.get(0)).isEqualTo("id,start,end,status,itemId,itemName,bookerId,bookerName");
+        assertThat(lines.subList(1, lines.size()))
+                .extracting(line -> Long.parseLong(line.substring(0, line.indexOf(','))))
+                .containsExactlyElementsOf(newestFirst);
+        assertThat(lines.get(1)).contains(",WAITING,")
+                .endsWith(",\"drill, cordless\"," + booker.getId() + ",\"Smith, \"\"Jr\"\"\"");
+    }
+
+    @Test
+    void exportsOwnerBookingsAsNdjson() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON);
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : lines) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertThat(rows).extracting(row -> row.get("id").asLong()).containsExactlyElementsOf(newestFirst);
+        assertThat(rows.get(0).get("bookerName").asText()).isEqualTo("Smith, \"Jr\"");
+    }
+
+    @Test
+    void rejectsUnknownOwner() {
+        assertThatThrownBy(() -> bookingService.exportByOwner(-1, ExportFormat.CSV))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private List<String> export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingService.exportByOwner(owner.getId(), format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private Item item(User itemOwner, String name) {
+        return itemRepository.save(Item.builder().name(name).description("export").available(true)
+                .owner(itemOwner).build());
+    }
+
+    private long book(Item item, LocalDateTime start) {
+        return bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(1))
+                .build()).getId();
+    }
+}
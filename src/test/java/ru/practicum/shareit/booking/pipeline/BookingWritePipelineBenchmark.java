@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.Benchmarks;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пропускная способность создания бронирований: каждый вызывающий поток бронирует свою вещь
+ * на непересекающиеся дни напрямую через сервис (транзакция на бронирование) и через конвейер
+ * (одна транзакция на пачку).
+ */
+@Tag(Benchmarks.TAG)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "shareit.booking.pipeline.enabled=true")
+class BookingWritePipelineBenchmark {
+    private static final int CALLERS = 32;
+    private static final int CALLS_PER_CALLER = 20;
+
+    @Autowired
+    private BookingWritePipeline bookingWritePipeline;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final AtomicInteger day = new AtomicInteger();
+    private List<User> bookers;
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@bench.ru").build());
+        bookers = userRepository.saveAll(IntStream.range(0, CALLERS)
+                .mapToObj(i -> User.builder().name("booker " + i).email("booker" + i + "-" + suffix + "@bench.ru").build())
+                .toList());
+        items = itemRepository.saveAll(IntStream.range(0, CALLERS)
+                .mapToObj(i -> Item.builder().name("item " + i).description("bench").available(true).owner(owner).build())
+                .toList());
+    }
+
+    @Test
+    void concurrentCallersThroughput() {
+        assertThat(createInParallel(bookingWritePipeline::create)).isEqualTo(CALLERS * CALLS_PER_CALLER);
+
+        long directNanos = Benchmarks.medianNanos("создание напрямую, " + CALLERS + " вызывающих", 1, 5,
+                () -> createInParallel(bookingService::create));
+        long pipelineNanos = Benchmarks.medianNanos("создание через конвейер, " + CALLERS + " вызывающих", 1, 5,
+                () -> createInParallel(bookingWritePipeline::create));
+        Benchmarks.ratio("создание, " + CALLERS + " вызывающих", directNanos, pipelineNanos);
+    }
+
+    private int createInParallel(BiFunction<Long, BookingCreateDto, BookingDto> create) {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        int firstDay = day.getAndAdd(CALLS_PER_CALLER);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                User booker = bookers.get(i);
+                Item item = items.get(i);
+                calls.add(callers.submit(() -> {
+                    int created = 0;
+                    for (int call = 0; call < CALLS_PER_CALLER; call++) {
+                        LocalDateTime start = base.plusDays(firstDay + call);
+                        create.apply(booker.getId(), BookingCreateDto.builder()
+                                .itemId(item.getId())
+                                .start(start)
+                                .end(start.plusHours(2))
+                                .build());
+                        created++;
+                    }
+                    return created;
+                }));
+            }
+            int created = 0;
+            for (Future<Integer> call : calls) {
+                created += call.get();
+            }
+            return created;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Запрос, не дождавшийся ответа, снимается с очереди и не создаётся позже; запрос, который
+ * рабочий поток уже взял, получает исход своей транзакции, а не конфликт.
+ */
+class BookingWritePipelineTest {
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofMillis(200);
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final CountDownLatch commit = new CountDownLatch(1);
+    private final CountDownLatch flushing = new CountDownLatch(1);
+    private final List<Long> created = new CopyOnWriteArrayList<>();
+    private final BookingWritePipeline pipeline = new BookingWritePipeline(bookingService, true, 1,
+            Duration.ZERO, 16, RESPONSE_TIMEOUT, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        commit.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void abandonsQueuedWriteOnTimeoutAndAwaitsClaimedOne() throws Exception {
+        doAnswer(invocation -> {
+            flushing.countDown();
+            commit.await(10, TimeUnit.SECONDS);
+            List<BookingWrite> writes = invocation.getArgument(0);
+            for (BookingWrite write : writes) {
+                created.add(write.getUserId());
+                write.getResponse().complete(BookingDto.builder().id(write.getUserId()).build());
+            }
+            return null;
+        }).when(bookingService).createAll(anyList());
+        pipeline.start();
+
+        CompletableFuture<BookingDto> claimed = CompletableFuture.supplyAsync(() -> pipeline.create(1, booking()));
+        assertThat(flushing.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<BookingDto> queued = CompletableFuture.supplyAsync(() -> pipeline.create(2, booking()));
+
+        assertThat(outcome(queued)).isInstanceOf(ConflictException.class);
+        Thread.sleep(RESPONSE_TIMEOUT.toMillis());
+        assertThat(claimed).isNotDone();
+
+        commit.countDown();
+        assertThat(claimed.get(10, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        Thread.sleep(RESPONSE_TIMEOUT.toMillis());
+        assertThat(created).containsExactly(1L);
+    }
+
+    private static Throwable outcome(CompletableFuture<BookingDto> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static BookingCreateDto booking() {
+        return BookingCreateDto.builder().itemId(1L).build();
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.Benchmarks;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.service.ItemSummaryFetcher;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Последнее и следующее бронирование для всех вещей владельца: одна выборка по одной строке на вещь
+ * против прежних двух выборок всей истории с отбором в toMap. Размер истории на вещь
+ * растёт, число вещей постоянно.
+ */
+@Tag(Benchmarks.TAG)
+@ActiveProfiles("test")
+@SpringBootTest
+class LastAndNextBookingBenchmark {
+    private static final int ITEMS = 20;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemSummaryFetcher itemSummaryFetcher;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void lastAndNextPerItem(int history) {
+        List<Long> itemIds = seed(history);
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ItemSummaryFetcher.LastAndNextBookings windowed = itemSummaryFetcher.fetchBookings(itemIds, now);
+        LastAndNext legacy = readOnly.execute(status -> fetchLegacy(itemIds, now));
+        assertThat(ids(windowed.last())).isEqualTo(legacy.last());
+        assertThat(ids(windowed.next())).isEqualTo(legacy.next());
+
+        long windowedNanos = Benchmarks.medianNanos("last/next по одной на вещь, история " + history, 5, 21,
+                () -> readOnly.executeWithoutResult(status -> itemSummaryFetcher.fetchBookings(itemIds, now)));
+        long legacyNanos = Benchmarks.medianNanos("last/next вся история, история " + history, 5, 21,
+                () -> readOnly.executeWithoutResult(status -> fetchLegacy(itemIds, now)));
+        Benchmarks.ratio("last/next, история " + history, legacyNanos, windowedNanos);
+    }
+
+    private LastAndNext fetchLegacy(List<Long> itemIds, LocalDateTime now) {
+        List<Booking> last = entityManager.createQuery("SELECT b FROM Booking AS b JOIN FETCH b.item " +
+                        "JOIN FETCH b.booker WHERE b.item.id IN :ids AND b.start <= :now AND b.status = :status " +
+                        "ORDER BY b.end DESC", Booking.class)
+                .setParameter("ids", itemIds)
+                .setParameter("now", now)
+                .setParameter("status", Status.APPROVED)
+                .getResultList();
+        List<Booking> next = entityManager.createQuery("SELECT b FROM Booking AS b JOIN FETCH b.item " +
+                        "JOIN FETCH b.booker WHERE b.item.id IN :ids AND b.start > :now AND b.status = :status " +
+                        "ORDER BY b.end ASC", Booking.class)
+                .setParameter("ids", itemIds)
+                .setParameter("now", now)
+                .setParameter("status", Status.APPROVED)
+                .getResultList();
+        return new LastAndNext(firstPerItem(last), firstPerItem(next));
+    }
+
+    private static Map<Long, Long> firstPerItem(List<Booking> bookings) {
+        return bookings.stream().collect(Collectors.toMap(
+                booking -> booking.getItem().getId(), Booking::getId, (first, second) -> first));
+    }
+
+    private static Map<Long, Long> ids(Map<Long, BookingDto.BookingShortDto> bookings) {
+        return bookings.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getId()));
+    }
+
+    private List<Long> seed(int history) {
+        String suffix = String.valueOf(System.nanoTime());
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@bench.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@bench.ru").build());
+        List<Item> items = itemRepository.saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> Item.builder().name("item " + i).description("bench").available(true).owner(owner).build())
+                .toList());
+
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        int future = Math.max(1, history / 10);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Item item : items) {
+            List<Booking> bookings = new ArrayList<>(history);
+            for (int i = 0; i < history; i++) {
+                LocalDateTime start = i < future ? base.plusDays(2L * i + 2) : base.minusDays(2L * (i - future) + 2);
+                bookings.add(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .status(i % 5 == 4 ? Status.REJECTED : Status.APPROVED)
+                        .phase(i < future ? Phase.FUTURE : Phase.PAST)
+                        .build());
+            }
+            transaction.executeWithoutResult(status -> bookingRepository.saveAll(bookings));
+        }
+        return items.stream().map(Item::getId).toList();
+    }
+
+    private record LastAndNext(Map<Long, Long> last, Map<Long, Long> next) {
+    }
+}
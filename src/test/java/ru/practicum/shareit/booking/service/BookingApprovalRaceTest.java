@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Одновременные подтверждения и отклонения одного бронирования: статус меняется ровно один раз,
+ * остальные запросы получают конфликт или отказ, а в базе остаётся решение победившего запроса.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingApprovalRaceTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@approve.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@approve.ru").build());
+    }
+
+    @Test
+    void concurrentDecisionsChangeStatusOnce() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Item item = itemRepository.save(Item.builder().name("drill").description("approve").available(true)
+                        .owner(owner).build());
+                BookingDto booking = bookingService.create(booker.getId(), BookingCreateDto.builder()
+                        .itemId(item.getId())
+                        .start(LocalDateTime.now().plusDays(1))
+                        .end(LocalDateTime.now().plusDays(2))
+                        .build());
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BookingDto>> decisions = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean approved = i % 2 == 0;
+                    decisions.add(threads.submit(() -> {
+                        start.await();
+                        return bookingService.approvedByOwner(owner.getId(), booking.getId(), approved);
+                    }));
+                }
+                start.countDown();
+
+                List<BookingDto> winners = new ArrayList<>();
+                for (Future<BookingDto> decision : decisions) {
+                    try {
+                        winners.add(decision.get(10, TimeUnit.SECONDS));
+                    } catch (ExecutionException e) {
+                        assertThat(e.getCause()).isInstanceOfAny(ConflictException.class, BadRequestException.class);
+                    }
+                }
+
+                assertThat(winners).hasSize(1);
+                Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+                assertThat(stored.getStatus().name()).isEqualTo(winners.get(0).getStatus());
+                assertThat(stored.getVersion()).isEqualTo(1L);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Пакетное решение владельца: ответ содержит результат для каждого элемента запроса в его порядке,
+ * ошибочные элементы не мешают остальным, а каждое подтверждённое или отклонённое бронирование
+ * меняет статус ровно один раз.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingBulkApprovalTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User stranger;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@bulk.ru").build());
+        stranger = userRepository.save(User.builder().name("stranger").email("stranger" + suffix + "@bulk.ru")
+                .build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@bulk.ru").build());
+    }
+
+    @Test
+    void decidesEachElementIndependently() {
+        long approve = book(owner);
+        long reject = book(owner);
+        long alreadyApproved = book(owner);
+        bookingService.approvedByOwner(owner.getId(), alreadyApproved, true);
+        long foreign = book(stranger);
+
+        List<BookingDecisionResultDto> results = bookingService.approveAllByOwner(owner.getId(), List.of(
+                decision(approve, true),
+                decision(reject, false),
+                decision(approve, false),
+                decision(alreadyApproved, false),
+                decision(foreign, true),
+                decision(null, true),
+                decision(reject, null)));
+
+        assertThat(results).extracting(BookingDecisionResultDto::getBookingId)
+                .containsExactly(approve, reject, approve, alreadyApproved, foreign, null, reject);
+        assertThat(results).extracting(BookingDecisionResultDto::getStatus)
+                .containsExactly("APPROVED", "REJECTED", null, null, null, null, null);
+        assertThat(results.subList(2, results.size()))
+                .allSatisfy(result -> assertThat(result.getError()).isNotBlank());
+
+        assertStored(approve, Status.APPROVED, 1);
+        assertStored(reject, Status.REJECTED, 1);
+        assertStored(alreadyApproved, Status.APPROVED, 1);
+        assertStored(foreign, Status.WAITING, 0);
+    }
+
+    @Test
+    void rejectsOversizedBatch() {
+        List<BookingDecisionDto> decisions = Collections.nCopies(501, decision(1L, true));
+
+        assertThatThrownBy(() -> bookingService.approveAllByOwner(owner.getId(), decisions))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private long book(User itemOwner) {
+        Item item = itemRepository.save(Item.builder().name("drill").description("bulk").available(true)
+                .owner(itemOwner).build());
+        return bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+    }
+
+    private void assertStored(long bookingId, Status status, long version) {
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        assertThat(booking.getStatus()).isEqualTo(status);
+        assertThat(booking.getVersion()).isEqualTo(version);
+    }
+
+    private static BookingDecisionDto decision(Long bookingId, Boolean approved) {
+        return BookingDecisionDto.builder().bookingId(bookingId).approved(approved).build();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.pipeline.BookingWrite;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Запись пачки, упавшая после вставки бронирования и события outbox, откатывается до своей точки
+ * сохранения и не занимает вещь, а соседние записи той же пачки фиксируются.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingServiceBatchTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @SpyBean
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@batch.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@batch.ru").build());
+    }
+
+    @Test
+    void rollsBackOnlyFailedEntryOfBatch() throws Exception {
+        List<Item> items = List.of(newItem(), newItem(), newItem());
+        Item failing = items.get(1);
+        doThrow(new ConflictException("Даты начала и завершения аренды пересекаются с уже существующими."))
+                .when(bookingAvailabilityIndex).reserve(argThat(booking -> booking.getItem().getId().equals(failing.getId())));
+        long eventsBefore = outboxEventRepository.count();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<BookingWrite> writes = items.stream()
+                .map(item -> new BookingWrite(booker.getId(), booking(item, start)))
+                .toList();
+
+        bookingService.createAll(writes);
+
+        assertThat(writes.get(0).getResponse().get(10, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(writes.get(2).getResponse().get(10, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThatThrownBy(() -> writes.get(1).getResponse().get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ConflictException.class);
+        assertThat(outboxEventRepository.count() - eventsBefore).isEqualTo(2);
+        for (Item item : items) {
+            assertThat(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(item.getId(),
+                    BookingAvailabilityIndex.BLOCKING_STATUSES, LocalDateTime.now()))
+                    .hasSize(item == failing ? 0 : 1);
+        }
+
+        reset(bookingAvailabilityIndex);
+        assertThat(bookingService.create(booker.getId(), booking(failing, start)).getId()).isNotNull();
+    }
+
+    private Item newItem() {
+        return itemRepository.save(Item.builder().name("ladder").description("batch").available(true)
+                .owner(owner).build());
+    }
+
+    private static BookingCreateDto booking(Item item, LocalDateTime start) {
+        return BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build();
+    }
+}
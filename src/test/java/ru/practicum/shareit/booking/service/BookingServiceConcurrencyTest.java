@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.pipeline.BookingWrite;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Параллельные попытки забронировать одну вещь на пересекающиеся даты: сколько бы потоков
+ * ни стартовало одновременно, в базе остаётся ровно одно бронирование, а остальные
+ * получают конфликт.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private List<User> bookers;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@race.ru").build());
+        bookers = userRepository.saveAll(IntStream.range(0, THREADS)
+                .mapToObj(i -> User.builder().name("booker " + i).email("booker" + i + "-" + suffix + "@race.ru").build())
+                .toList());
+    }
+
+    @Test
+    void concurrentCreatesOfOverlappingBookingsKeepOne() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Item item = newItem();
+            LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+            List<Outcome> outcomes = race(IntStream.range(0, THREADS)
+                    .<Callable<BookingDto>>mapToObj(i -> () -> bookingService.create(bookers.get(i).getId(),
+                            overlapping(item, base, i)))
+                    .toList());
+
+            assertSingleWinner(item, outcomes);
+        }
+    }
+
+    @Test
+    void concurrentBatchesOfOverlappingBookingsKeepOne() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Item item = newItem();
+            LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+            List<Callable<BookingDto>> batches = new ArrayList<>();
+            for (int batch = 0; batch < THREADS / 4; batch++) {
+                List<BookingWrite> writes = IntStream.range(batch * 4, batch * 4 + 4)
+                        .mapToObj(i -> new BookingWrite(bookers.get(i).getId(), overlapping(item, base, i)))
+                        .toList();
+                for (BookingWrite write : writes) {
+                    batches.add(() -> write.getResponse().get(10, TimeUnit.SECONDS));
+                }
+                batches.add(() -> {
+                    bookingService.createAll(writes);
+                    return null;
+                });
+            }
+
+            List<Outcome> outcomes = race(batches).stream()
+                    .filter(outcome -> outcome.failure() != null || outcome.booking() != null)
+                    .toList();
+
+            assertThat(outcomes).hasSize(THREADS);
+            assertSingleWinner(item, outcomes);
+        }
+    }
+
+    private void assertSingleWinner(Item item, List<Outcome> outcomes) {
+        assertThat(outcomes.stream().filter(outcome -> outcome.booking() != null)).hasSize(1);
+        assertThat(outcomes.stream().filter(outcome -> outcome.failure() != null))
+                .hasSize(outcomes.size() - 1)
+                .allSatisfy(outcome -> assertThat(outcome.failure()).isInstanceOf(ConflictException.class));
+        assertThat(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(item.getId(),
+                BookingAvailabilityIndex.BLOCKING_STATUSES, LocalDateTime.now())).hasSize(1);
+    }
+
+    private Item newItem() {
+        return itemRepository.save(Item.builder().name("drill").description("race").available(true).owner(owner).build());
+    }
+
+    /**
+     * Интервалы сдвинуты на минуту друг относительно друга, но длятся два часа,
+     * поэтому любые два из них пересекаются.
+     */
+    private static BookingCreateDto overlapping(Item item, LocalDateTime base, int i) {
+        return BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(base.plusMinutes(i))
+                .end(base.plusHours(2).plusMinutes(i))
+                .build();
+    }
+
+    private static List<Outcome> race(List<Callable<BookingDto>> calls) throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(calls.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<BookingDto>> futures = calls.stream()
+                    .map(call -> threads.submit(() -> {
+                        start.await();
+                        return call.call();
+                    }))
+                    .toList();
+            start.countDown();
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<BookingDto> future : futures) {
+                try {
+                    outcomes.add(new Outcome(future.get(30, TimeUnit.SECONDS), null));
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() instanceof ExecutionException ? e.getCause().getCause() : e.getCause();
+                    outcomes.add(new Outcome(null, cause));
+                } catch (TimeoutException e) {
+                    throw new IllegalStateException("Поток не завершился вовремя", e);
+                }
+            }
+            return outcomes;
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private record Outcome(BookingDto booking, Throwable failure) {
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingSummaryCacheTest {
+    private final AtomicLong loads = new AtomicLong();
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        BookingSummaryCache cache = new BookingSummaryCache(Duration.ofMinutes(1), 2);
+
+        cache.getByOwner(1, counting());
+        cache.getByBooker(1, counting());
+        cache.getByOwner(1, counting());
+        cache.getByOwner(2, counting());
+        assertThat(loads).hasValue(3);
+
+        cache.getByOwner(1, counting());
+        assertThat(loads).hasValue(3);
+        cache.getByBooker(1, counting());
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void reloadsBothRolesAfterEvict() {
+        BookingSummaryCache cache = new BookingSummaryCache(Duration.ofMinutes(1), 10);
+        cache.getByBooker(1, counting());
+        cache.getByOwner(2, counting());
+
+        cache.evict(1, 2);
+
+        assertThat(cache.getByBooker(1, counting()).getAll()).isEqualTo(3);
+        assertThat(cache.getByOwner(2, counting()).getAll()).isEqualTo(4);
+    }
+
+    @Test
+    void doesNotCacheCountThatRacedWithEvict() {
+        BookingSummaryCache cache = new BookingSummaryCache(Duration.ofMinutes(1), 10);
+
+        cache.getByOwner(2, () -> {
+            cache.evict(1, 2);
+            return counting().get();
+        });
+
+        assertThat(cache.getByOwner(2, counting()).getAll()).isEqualTo(2);
+    }
+
+    @Test
+    void zeroTtlAlwaysLoads() {
+        BookingSummaryCache cache = new BookingSummaryCache(Duration.ZERO, 10);
+
+        cache.getByOwner(1, counting());
+        cache.getByOwner(1, counting());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Supplier<BookingSummaryDto> counting() {
+        return () -> BookingSummaryDto.builder().all(loads.incrementAndGet()).build();
+    }
+}
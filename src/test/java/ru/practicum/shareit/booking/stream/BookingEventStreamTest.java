@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.repository.OutboxOffsetRepository;
+import ru.practicum.shareit.outbox.service.OutboxRelay;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Переподключение с Last-Event-ID отдаёт все пропущенные события пользователя, сколько бы чужих
+ * событий ни было между ними и сколько бы страниц ни понадобилось. Поток читается настоящим HTTP-клиентом:
+ * пропущенное отправляется после того, как ответ начал писаться, и должно дойти до клиента.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.booking.stream.replay-page-size=2")
+class BookingEventStreamTest {
+    private static final int OWN_BOOKINGS = 5;
+    private static final int FOREIGN_BOOKINGS = 12;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@stream.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@stream.ru").build());
+        stranger = userRepository.save(User.builder().name("stranger").email("stranger" + suffix + "@stream.ru").build());
+    }
+
+    @Test
+    void replaysEveryMissedEventOfUserAcrossPages() throws Exception {
+        outboxRelay.relay();
+        long lastEventId = outboxOffsetRepository.findById(OutboxRelay.SEQUENCER).orElseThrow().getLastEventId();
+        Item item = newItem(owner);
+        Item foreignItem = newItem(stranger);
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+        List<Long> own = new ArrayList<>();
+        for (int i = 0; i < FOREIGN_BOOKINGS; i++) {
+            bookingService.create(owner.getId(), booking(foreignItem, base.plusDays(i)));
+            if (i % 2 == 1 && own.size() < OWN_BOOKINGS) {
+                own.add(bookingService.create(booker.getId(), booking(item, base.plusDays(i))).getId());
+            }
+        }
+        outboxRelay.relay();
+
+        assertThat(replay(booker, lastEventId, OWN_BOOKINGS)).containsExactlyElementsOf(own);
+        assertThat(replay(owner, lastEventId, OWN_BOOKINGS + FOREIGN_BOOKINGS)).containsAll(own);
+    }
+
+    /**
+     * Подключается к потоку и ждёт expected событий, не дольше десяти секунд.
+     *
+     * @return id бронирований из полученных событий в порядке получения
+     */
+    private List<Long> replay(User user, long lastEventId, int expected) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/stream"))
+                .header("X-Sharer-User-Id", String.valueOf(user.getId()))
+                .header("Last-Event-ID", String.valueOf(lastEventId))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (Stream<String> lines = response.body()) {
+            return CompletableFuture.supplyAsync(() -> lines
+                            .filter(line -> line.startsWith("data:"))
+                            .limit(expected)
+                            .map(line -> line.replaceAll(".*\"bookingId\":(\\d+).*", "$1"))
+                            .map(Long::valueOf)
+                            .toList())
+                    .get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Item newItem(User itemOwner) {
+        return itemRepository.save(Item.builder().name("tent").description("stream").available(true)
+                .owner(itemOwner).build());
+    }
+
+    private static BookingCreateDto booking(Item item, LocalDateTime start) {
+        return BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build();
+    }
+}
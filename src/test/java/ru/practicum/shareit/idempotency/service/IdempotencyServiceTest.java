@@ -0,0 +1,116 @@
+package ru.practicum.shareit.idempotency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRecordRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+    private static final int DUPLICATES = 8;
+
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        when(repository.save(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), Duration.ofHours(1), Duration.ofSeconds(10), 100);
+    }
+
+    @Test
+    void replaysStoredResponseForSameRequest() {
+        Created first = create("key", new Request(1));
+        Created second = create("key", new Request(1));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void rejectsSameKeyWithDifferentBody() {
+        create("key", new Request(1));
+
+        assertThatThrownBy(() -> create("key", new Request(2))).isInstanceOf(ConflictException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForFirstRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Created> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(1, "create", "key", new Request(1), Created.class, () -> {
+                    started.countDown();
+                    await(finish);
+                    return new Created(runs.incrementAndGet());
+                }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<Created>> duplicates = new ArrayList<>();
+        for (int i = 0; i < DUPLICATES; i++) {
+            duplicates.add(CompletableFuture.supplyAsync(() -> create("key", new Request(1))));
+        }
+        CompletableFuture<Created> different = CompletableFuture.supplyAsync(() -> create("key", new Request(2)));
+        finish.countDown();
+
+        Created created = first.get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<Created> duplicate : duplicates) {
+            assertThat(duplicate.get(10, TimeUnit.SECONDS)).isEqualTo(created);
+        }
+        assertThatThrownBy(() -> different.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ConflictException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedRequestDoesNotReserveKey() {
+        assertThatThrownBy(() -> idempotencyService.execute(1, "create", "key", new Request(1), Created.class, () -> {
+            throw new ConflictException("занято");
+        })).isInstanceOf(ConflictException.class);
+
+        assertThat(create("key", new Request(1))).isEqualTo(new Created(1));
+    }
+
+    private Created create(String key, Request request) {
+        return idempotencyService.execute(1, "create", key, request, Created.class,
+                () -> new Created(runs.incrementAndGet()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    record Request(long itemId) {
+    }
+
+    record Created(long id) {
+    }
+}
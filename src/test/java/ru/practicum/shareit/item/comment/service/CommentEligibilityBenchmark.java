@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.comment.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.Benchmarks;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка права на комментарий у арендатора с длинной историей бронирований одной вещи:
+ * загрузка всех завершённых бронирований с графом сущностей, как было раньше, запрос exists
+ * при промахе кеша и попадание в кеш.
+ */
+@Tag(Benchmarks.TAG)
+@ActiveProfiles("test")
+@SpringBootTest
+class CommentEligibilityBenchmark {
+    private static final int BOOKINGS = 200;
+    private static final int CHECKS = 1000;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        String suffix = String.valueOf(System.nanoTime());
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@eligible.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@eligible.ru").build());
+        item = itemRepository.save(Item.builder().name("kayak").description("eligible").available(true)
+                .owner(owner).build());
+        LocalDateTime base = LocalDateTime.now().withNano(0).minusYears(1);
+        bookingRepository.saveAll(IntStream.range(0, BOOKINGS)
+                .mapToObj(i -> Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(base.plusDays(i))
+                        .end(base.plusDays(i).plusHours(2))
+                        .status(Status.APPROVED)
+                        .phase(Phase.PAST)
+                        .build())
+                .toList());
+    }
+
+    @Test
+    void eligibilityCheck() {
+        CommentEligibilityCache missing = new CommentEligibilityCache(bookingRepository, 0);
+        CommentEligibilityCache cached = new CommentEligibilityCache(bookingRepository, 1);
+        assertThat(loadFinished()).isTrue();
+        assertThat(missing.isEligible(booker.getId(), item.getId())).isTrue();
+        assertThat(cached.isEligible(booker.getId(), item.getId())).isTrue();
+
+        long loadNanos = Benchmarks.medianNanos(CHECKS + " проверок, загрузка бронирований с графом", 2, 9,
+                () -> IntStream.range(0, CHECKS).forEach(i -> loadFinished()));
+        long existsNanos = Benchmarks.medianNanos(CHECKS + " проверок, exists при промахе кеша", 2, 9,
+                () -> IntStream.range(0, CHECKS).forEach(i -> missing.isEligible(booker.getId(), item.getId())));
+        long cachedNanos = Benchmarks.medianNanos(CHECKS + " проверок, попадание в кеш", 2, 9,
+                () -> IntStream.range(0, CHECKS).forEach(i -> cached.isEligible(booker.getId(), item.getId())));
+        Benchmarks.ratio("право на комментарий, exists против загрузки", loadNanos, existsNanos);
+        Benchmarks.ratio("право на комментарий, кеш против загрузки", loadNanos, cachedNanos);
+    }
+
+    private boolean loadFinished() {
+        return Boolean.TRUE.equals(readOnlyTransaction.execute(status -> !entityManager
+                .createQuery("SELECT b FROM Booking AS b WHERE b.booker.id = :bookerId AND b.item.id = :itemId "
+                        + "AND b.status = :status AND b.end < :now", Booking.class)
+                .setParameter("bookerId", booker.getId())
+                .setParameter("itemId", item.getId())
+                .setParameter("status", Status.APPROVED)
+                .setParameter("now", LocalDateTime.now())
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("booking-entity-graph"))
+                .getResultList()
+                .isEmpty()));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.comment.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Право оставить комментарий не зависит от того, есть ли пара в кеше: пустой кеш и кеш,
+ * который уже не принимает пары, отвечают запросом к базе так же, как заполненный.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class CommentEligibilityCacheTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User booker;
+    private Item finished;
+    private Item rejected;
+    private Item future;
+    private Item untouched;
+    private Booking finishedBooking;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@eligible.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@eligible.ru").build());
+        finished = newItem(owner);
+        rejected = newItem(owner);
+        future = newItem(owner);
+        untouched = newItem(owner);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        finishedBooking = book(finished, now.minusDays(3), now.minusDays(2), Status.APPROVED, Phase.PAST);
+        book(rejected, now.minusDays(3), now.minusDays(2), Status.REJECTED, Phase.PAST);
+        book(future, now.plusDays(2), now.plusDays(3), Status.APPROVED, Phase.FUTURE);
+    }
+
+    @Test
+    void answersFromDatabaseOnMiss() {
+        CommentEligibilityCache cache = new CommentEligibilityCache(bookingRepository, 100);
+
+        assertEligibility(cache);
+        assertEligibility(cache);
+    }
+
+    @Test
+    void answersFromDatabaseWhenFull() {
+        CommentEligibilityCache cache = new CommentEligibilityCache(bookingRepository, 0);
+        cache.finished(List.of(finishedBooking.getId()));
+
+        assertEligibility(cache);
+        assertEligibility(cache);
+    }
+
+    private void assertEligibility(CommentEligibilityCache cache) {
+        assertThat(cache.isEligible(booker.getId(), finished.getId())).isTrue();
+        assertThat(cache.isEligible(booker.getId(), rejected.getId())).isFalse();
+        assertThat(cache.isEligible(booker.getId(), future.getId())).isFalse();
+        assertThat(cache.isEligible(booker.getId(), untouched.getId())).isFalse();
+    }
+
+    private Item newItem(User owner) {
+        return itemRepository.save(Item.builder().name("kayak").description("eligible").available(true)
+                .owner(owner).build());
+    }
+
+    private Booking book(Item item, LocalDateTime start, LocalDateTime end, Status status, Phase phase) {
+        return bookingRepository.save(Booking.builder().item(item).booker(booker).start(start).end(end)
+                .status(status).phase(phase).build());
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemUpdateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Индекс находит те же вещи, что и прежний запрос с LIKE: без учёта регистра, для запросов короче
+ * триграммы и без недоступных вещей. Сравниваются только вещи этого теста, база общая для всех тестов.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemSearchIndexQueryTest {
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final Set<Long> own = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder().name("owner")
+                .email("owner" + System.nanoTime() + "@search.ru").build());
+        create(owner, "Дрель", "Аккумуляторная ДРЕЛЬ с набором бит", true);
+        create(owner, "Drill press", "Bench mounted", true);
+        create(owner, "Ladder", "Aluminium, folds flat; not a DRILL", true);
+        create(owner, "Old drill", "Broken chuck", false);
+        ItemDto hidden = create(owner, "Saw", "Sharp saw for drilling holes? no", true);
+        itemService.update(ItemUpdateDto.builder().id(hidden.getId()).ownerId(owner.getId()).available(false).build());
+        ItemDto renamed = create(owner, "Kayak", "Two seats", true);
+        itemService.update(ItemUpdateDto.builder().id(renamed.getId()).ownerId(owner.getId()).name("Canoe").build());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"drill", "DRILL", "Dr", "d", "ill", "дрель", "ДРЕ", "бит", "kayak", "canoe", "saw", "a", "zzz"})
+    void findsSameItemsAsLikeQuery(String text) {
+        Set<Long> expected = new HashSet<>(entityManager.createQuery("""
+                        SELECT it.id FROM Item AS it
+                        WHERE (lower(it.name) like '%'||lower(:text)||'%' OR
+                        lower(it.description) like '%'||lower(:text)||'%')
+                        AND it.available = true
+                        """, Long.class)
+                .setParameter("text", text)
+                .getResultList());
+        expected.retainAll(own);
+
+        Set<Long> found = new HashSet<>(itemSearchIndex.search(text, null, Integer.MAX_VALUE).stream()
+                .map(ItemSearchIndex.IndexedItem::id)
+                .toList());
+        found.retainAll(own);
+
+        assertThat(found).isEqualTo(expected);
+    }
+
+    private ItemDto create(User owner, String name, String description, boolean available) {
+        ItemDto item = itemService.create(ItemCreateDto.builder().name(name).description(description)
+                .available(available).build(), owner.getId());
+        own.add(item.getId());
+        return item;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        index = new ItemSearchIndex(itemRepository);
+    }
+
+    @Test
+    void dropsSnapshotOlderThanIndexed() {
+        index.index(item(1, 2, "ladder", true));
+        index.index(item(1, 1, "hammer", true));
+
+        assertThat(ids("ladder")).containsExactly(1L);
+        assertThat(ids("hammer")).isEmpty();
+
+        index.index(item(1, 4, "ladder", false));
+        index.index(item(1, 3, "ladder", true));
+
+        assertThat(ids("ladder")).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsChangesCommittedWhileLoading() {
+        when(itemRepository.findAllByAvailableTrueAndOwnerDeletedFalse()).thenAnswer(invocation -> {
+            index.index(item(1, 1, "renamed ladder", true));
+            index.index(item(2, 1, "hidden saw", false));
+            index.index(item(3, 0, "new drill", true));
+            return List.of(item(1, 0, "old ladder", true), item(2, 0, "saw", true), item(4, 0, "plain tent", true));
+        });
+
+        index.rebuild();
+
+        assertThat(ids("ladder")).containsExactly(1L);
+        assertThat(ids("old")).isEmpty();
+        assertThat(ids("saw")).isEmpty();
+        assertThat(ids("drill")).containsExactly(3L);
+        assertThat(ids("tent")).containsExactly(4L);
+    }
+
+    @Test
+    void rebuildReplaysOwnerRemoval() {
+        when(itemRepository.findAllByAvailableTrueAndOwnerDeletedFalse()).thenAnswer(invocation -> {
+            index.removeByOwner(7);
+            return List.of(item(1, 0, "ladder", true));
+        });
+
+        index.rebuild();
+
+        assertThat(ids("ladder")).isEmpty();
+    }
+
+    private List<Long> ids(String text) {
+        return index.search(text, null, 100).stream().map(ItemSearchIndex.IndexedItem::id).toList();
+    }
+
+    private static Item item(long id, long version, String name, boolean available) {
+        return Item.builder()
+                .id(id)
+                .version(version)
+                .name(name)
+                .description("tool")
+                .available(available)
+                .owner(User.builder().id(7L).build())
+                .build();
+    }
+}
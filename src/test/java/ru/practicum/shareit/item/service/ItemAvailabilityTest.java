@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.Slot;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Календарь вещи собирает занятые интервалы из прошлого (запрос к базе) и из будущего (индекс),
+ * обрезает их по окну, пропускает отклонённые бронирования и заполняет промежутки свободными интервалами.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemAvailabilityTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@calendar.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@calendar.ru").build());
+        item = itemRepository.save(Item.builder().name("tent").description("calendar").available(true)
+                .owner(owner).build());
+    }
+
+    @Test
+    void mergesPastAndFutureBookingsInsideWindow() {
+        bookingRepository.save(past(now.minusDays(4), now.minusDays(2), Status.APPROVED));
+        bookingRepository.save(past(now.minusDays(2), now.minusDays(1), Status.REJECTED));
+        book(now.plusDays(1), now.plusDays(2));
+        BookingDto rejected = book(now.plusDays(2), now.plusDays(3));
+        bookingService.approvedByOwner(item.getOwner().getId(), rejected.getId(), false);
+        book(now.plusDays(4), now.plusDays(7));
+        LocalDateTime from = now.minusDays(3);
+        LocalDateTime to = now.plusDays(5);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(item.getId(), from, to);
+
+        assertThat(availability.getBusy()).containsExactly(
+                new Slot(from, now.minusDays(2), Status.APPROVED),
+                new Slot(now.plusDays(1), now.plusDays(2), Status.WAITING),
+                new Slot(now.plusDays(4), to, Status.WAITING));
+        assertThat(availability.getFree()).containsExactly(
+                new Slot(now.minusDays(2), now.plusDays(1), null),
+                new Slot(now.plusDays(2), now.plusDays(4), null));
+    }
+
+    @Test
+    void rejectsEmptyWindow() {
+        assertThatThrownBy(() -> itemService.getAvailability(item.getId(), now, now))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private BookingDto book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.create(booker.getId(), BookingCreateDto.builder().itemId(item.getId())
+                .start(start).end(end).build());
+    }
+
+    private Booking past(LocalDateTime start, LocalDateTime end, Status status) {
+        return Booking.builder().item(item).booker(booker).start(start).end(end).status(status)
+                .phase(Phase.PAST).build();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ItemSearchPagingTest {
+    private ItemSearchIndex itemSearchIndex;
+    private ItemService itemService;
+
+    @BeforeEach
+    void setUp() {
+        itemSearchIndex = new ItemSearchIndex(mock(ItemRepository.class));
+        itemService = new ItemServiceImpl(mock(ItemRepository.class), mock(UserResolver.class), itemSearchIndex,
+                mock(ItemSummaryService.class), mock(BookingRepository.class), mock(BookingAvailabilityIndex.class));
+        index(1, "Ladder", "not a drill");
+        index(2, "Drill", "cordless");
+        index(3, "Saw", "for drilling? no, for DRILL bits");
+        index(4, "Hammer drill", "heavy");
+        index(5, "Tent", "two seats");
+        index(6, "Drill press", "bench");
+    }
+
+    @Test
+    void ranksNameMatchesBeforeDescriptionMatches() {
+        assertThat(ids(itemService.getByText("DRILL", null, null))).containsExactly(2L, 4L, 6L, 1L, 3L);
+    }
+
+    @Test
+    void pagesWithCursorAcrossRanksWithoutGapsOrRepeats() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ItemSearchPageDto page = itemService.getByText("drill", cursor, 2);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(2);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(2L, 4L, 6L, 1L, 3L);
+    }
+
+    @Test
+    void nextPageDropsItemHiddenAfterFirstPage() {
+        ItemSearchPageDto first = itemService.getByText("drill", null, 2);
+        index(6, "Drill press", "bench", false);
+
+        assertThat(ids(itemService.getByText("drill", first.getNextCursor(), 2))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> itemService.getByText("drill", "not-a-cursor", 2))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void index(long id, String name, String description) {
+        index(id, name, description, true);
+    }
+
+    private void index(long id, String name, String description, boolean available) {
+        itemSearchIndex.index(Item.builder()
+                .id(id)
+                .version(available ? 0L : 1L)
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(User.builder().id(7L).build())
+                .build());
+    }
+
+    private static List<Long> ids(ItemSearchPageDto page) {
+        return page.getItems().stream().map(ItemDto::getId).toList();
+    }
+}
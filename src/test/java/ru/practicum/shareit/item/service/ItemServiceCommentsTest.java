@@ -0,0 +1,94 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.repository.ItemSummaryRepository;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сводка вещи хранит только последние комментарии, но ответы GET /items/{id} и GET /items
+ * по-прежнему содержат все комментарии вещи.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "shareit.item-summary.latest-comments=2")
+class ItemServiceCommentsTest {
+    private static final int COMMENTS = 5;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemSummaryService itemSummaryService;
+    @Autowired
+    private ItemSummaryRepository itemSummaryRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User author;
+    private ItemDto item;
+    private List<Long> newestFirst;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@comments.ru").build());
+        author = userRepository.save(User.builder().name("author").email("author" + suffix + "@comments.ru").build());
+        item = itemService.create(ItemCreateDto.builder().name("drill").description("comments").available(true)
+                .build(), owner.getId());
+        Item itemReference = itemRepository.getReferenceById(item.getId());
+        LocalDateTime base = LocalDateTime.now().minusDays(1).withNano(0);
+        newestFirst = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < COMMENTS; i++) {
+            LocalDateTime created = base.plusMinutes(i);
+            Long id = transaction.execute(status -> {
+                Comment comment = commentRepository.save(Comment.builder().text("comment").item(itemReference)
+                        .author(author).created(created).build());
+                itemSummaryService.addComment(comment);
+                return comment.getId();
+            });
+            newestFirst.add(0, id);
+        }
+    }
+
+    @Test
+    void itemResponsesKeepEveryComment() {
+        assertThat(itemSummaryRepository.findById(item.getId()).orElseThrow().getCommentCount()).isEqualTo(COMMENTS);
+
+        assertThat(commentIds(itemService.get(item.getId(), owner.getId()))).isEqualTo(newestFirst);
+        assertThat(commentIds(itemService.get(item.getId(), author.getId()))).isEqualTo(newestFirst);
+        assertThat(itemService.getAllByOwnerId(owner.getId()))
+                .singleElement()
+                .satisfies(ownItem -> assertThat(commentIds(ownItem)).isEqualTo(newestFirst));
+    }
+
+    private static List<Long> commentIds(ItemDto itemDto) {
+        return itemDto.getComments().stream().map(CommentDto::getId).toList();
+    }
+}
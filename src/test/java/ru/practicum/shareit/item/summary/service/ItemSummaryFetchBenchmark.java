@@ -0,0 +1,149 @@
+package ru.practicum.shareit.item.summary.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.Benchmarks;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пересчёт сводок вещей в режимах SEQUENTIAL и CONCURRENT на одних и тех же данных:
+ * задержка одного вызова и пропускная способность при параллельных вызовах,
+ * число которых больше пула соединений.
+ */
+@Tag(Benchmarks.TAG)
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemSummaryFetchBenchmark {
+    private static final int ITEMS = 20;
+    private static final int BOOKINGS_PER_ITEM = 200;
+    private static final int COMMENTS_PER_ITEM = 50;
+    private static final int CALLERS = 32;
+    private static final int CALLS_PER_CALLER = 20;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<Long> itemIds;
+    private ItemSummaryFetcher sequential;
+    private ItemSummaryFetcher concurrent;
+
+    @BeforeEach
+    void setUp() {
+        itemIds = seed();
+        sequential = fetcher(ItemSummaryFetcher.FetchMode.SEQUENTIAL);
+        concurrent = fetcher(ItemSummaryFetcher.FetchMode.CONCURRENT);
+    }
+
+    @Test
+    void singleCallerLatency() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(concurrent.fetch(itemIds, now)).isEqualTo(sequential.fetch(itemIds, now));
+
+        long sequentialNanos = Benchmarks.medianNanos("сводки SEQUENTIAL, один вызов", 10, 51,
+                () -> sequential.fetch(itemIds, now));
+        long concurrentNanos = Benchmarks.medianNanos("сводки CONCURRENT, один вызов", 10, 51,
+                () -> concurrent.fetch(itemIds, now));
+        Benchmarks.ratio("сводки, один вызов", sequentialNanos, concurrentNanos);
+    }
+
+    @Test
+    void concurrentCallersThroughput() throws Exception {
+        long sequentialNanos = Benchmarks.medianNanos("сводки SEQUENTIAL, " + CALLERS + " вызывающих", 1, 5,
+                () -> callInParallel(sequential));
+        long concurrentNanos = Benchmarks.medianNanos("сводки CONCURRENT, " + CALLERS + " вызывающих", 1, 5,
+                () -> callInParallel(concurrent));
+        Benchmarks.ratio("сводки, " + CALLERS + " вызывающих", sequentialNanos, concurrentNanos);
+    }
+
+    private void callInParallel(ItemSummaryFetcher fetcher) {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(callers.submit(() -> {
+                    for (int call = 0; call < CALLS_PER_CALLER; call++) {
+                        fetcher.fetch(itemIds, LocalDateTime.now());
+                    }
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private ItemSummaryFetcher fetcher(ItemSummaryFetcher.FetchMode mode) {
+        return new ItemSummaryFetcher(bookingRepository, commentRepository, transactionManager,
+                new SimpleMeterRegistry(), mode, 0, 10);
+    }
+
+    private List<Long> seed() {
+        String suffix = String.valueOf(System.nanoTime());
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@bench.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@bench.ru").build());
+        List<Item> items = itemRepository.saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> Item.builder().name("item " + i).description("bench").available(true).owner(owner).build())
+                .toList());
+
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Item item : items) {
+            List<Booking> bookings = IntStream.range(0, BOOKINGS_PER_ITEM)
+                    .mapToObj(i -> Booking.builder()
+                            .item(item)
+                            .booker(booker)
+                            .start(base.plusDays(2L * i - BOOKINGS_PER_ITEM))
+                            .end(base.plusDays(2L * i - BOOKINGS_PER_ITEM + 1))
+                            .status(Status.APPROVED)
+                            .phase(i < BOOKINGS_PER_ITEM / 2 ? Phase.PAST : Phase.FUTURE)
+                            .build())
+                    .toList();
+            List<Comment> comments = IntStream.range(0, COMMENTS_PER_ITEM)
+                    .mapToObj(i -> Comment.builder().text("comment " + i).item(item).author(booker).created(base.minusHours(i)).build())
+                    .toList();
+            transaction.executeWithoutResult(status -> {
+                bookingRepository.saveAll(bookings);
+                commentRepository.saveAll(comments);
+            });
+        }
+        return items.stream().map(Item::getId).toList();
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.outbox.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.EventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxOffset;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.repository.OutboxOffsetRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Событие транзакции, которая зафиксировалась позже транзакции с большим id, всё равно
+ * доставляется подписчику и получает следующий номер доставки; доставленные события
+ * старше срока хранения удаляются, недоставленные остаются; подписчик с собственным смещением
+ * на каждом экземпляре получает каждое событие на всех экземплярах.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class OutboxRelayTest {
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private RecordingSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        subscriber = new RecordingSubscriber("relay-test-" + System.nanoTime());
+        long sequenced = outboxOffsetRepository.findById(OutboxRelay.SEQUENCER).orElseThrow().getLastEventId();
+        outboxOffsetRepository.save(new OutboxOffset(subscriber.name(), sequenced));
+    }
+
+    @Test
+    void deliversEventOfTransactionCommittedAfterLaterId() throws Exception {
+        OutboxRelay relay = relay(Duration.ofDays(7));
+        long aggregateId = System.nanoTime();
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            outboxPublisher.publish(EventType.COMMENT_CREATED, aggregateId, Map.of("order", "late"));
+            published.countDown();
+            await(commit);
+        }));
+        assertThat(published.await(10, TimeUnit.SECONDS)).isTrue();
+        transaction.executeWithoutResult(status ->
+                outboxPublisher.publish(EventType.COMMENT_CREATED, aggregateId, Map.of("order", "early")));
+
+        relay.relay();
+        assertThat(subscriber.payloads(aggregateId)).containsExactly("{\"order\":\"early\"}");
+
+        commit.countDown();
+        late.get(10, TimeUnit.SECONDS);
+        relay.relay();
+
+        List<OutboxEvent> events = subscriber.events(aggregateId);
+        assertThat(events).extracting(OutboxEvent::getPayload)
+                .containsExactly("{\"order\":\"early\"}", "{\"order\":\"late\"}");
+        assertThat(events.get(1).getId()).isLessThan(events.get(0).getId());
+        assertThat(events.get(1).getDeliveryId()).isGreaterThan(events.get(0).getDeliveryId());
+    }
+
+    @Test
+    void purgesOnlyDeliveredEventsOlderThanRetention() {
+        long aggregateId = System.nanoTime();
+        transaction.executeWithoutResult(status ->
+                outboxPublisher.publish(EventType.COMMENT_CREATED, aggregateId, Map.of("order", "delivered")));
+        relay(Duration.ofDays(7)).relay();
+        OutboxEvent delivered = subscriber.events(aggregateId).get(0);
+
+        OutboxRelay lagging = relay(Duration.ZERO);
+        outboxOffsetRepository.save(new OutboxOffset(subscriber.name(), delivered.getDeliveryId() - 1));
+        lagging.purge();
+        assertThat(outboxEventRepository.findById(delivered.getId())).isPresent();
+
+        outboxOffsetRepository.save(new OutboxOffset(subscriber.name(), delivered.getDeliveryId()));
+        relay(Duration.ofDays(7)).purge();
+        assertThat(outboxEventRepository.findById(delivered.getId())).isPresent();
+
+        lagging.purge();
+        assertThat(outboxEventRepository.findById(delivered.getId())).isEmpty();
+    }
+
+    @Test
+    void deliversEveryEventToPerInstanceSubscriberOnEachInstance() {
+        String name = "stream-test-" + System.nanoTime();
+        RecordingSubscriber onFirst = new RecordingSubscriber(name, true);
+        RecordingSubscriber onSecond = new RecordingSubscriber(name, true);
+        OutboxRelay first = relay(onFirst, "first");
+        OutboxRelay second = relay(onSecond, "second");
+        first.relay();
+        second.relay();
+
+        long aggregateId = System.nanoTime();
+        transaction.executeWithoutResult(status ->
+                outboxPublisher.publish(EventType.COMMENT_CREATED, aggregateId, Map.of("order", "shared")));
+        first.relay();
+        second.relay();
+
+        assertThat(onFirst.payloads(aggregateId)).containsExactly("{\"order\":\"shared\"}");
+        assertThat(onSecond.payloads(aggregateId)).containsExactly("{\"order\":\"shared\"}");
+        assertThat(outboxOffsetRepository.findById(name + "@first")).isPresent();
+        assertThat(outboxOffsetRepository.findById(name + "@second")).isPresent();
+        assertThat(outboxOffsetRepository.findById(name)).isEmpty();
+    }
+
+    private OutboxRelay relay(Duration retention) {
+        return new OutboxRelay(outboxEventRepository, outboxOffsetRepository, List.of(subscriber),
+                transactionManager, 200, retention, "test");
+    }
+
+    private OutboxRelay relay(OutboxSubscriber instanceSubscriber, String instanceId) {
+        return new OutboxRelay(outboxEventRepository, outboxOffsetRepository, List.of(instanceSubscriber),
+                transactionManager, 200, Duration.ofDays(7), instanceId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record RecordingSubscriber(String name, boolean perInstance, List<OutboxEvent> received)
+            implements OutboxSubscriber {
+        private RecordingSubscriber(String name) {
+            this(name, false);
+        }
+
+        private RecordingSubscriber(String name, boolean perInstance) {
+            this(name, perInstance, new CopyOnWriteArrayList<>());
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            received.addAll(events);
+        }
+
+        private List<OutboxEvent> events(long aggregateId) {
+            return received.stream().filter(event -> event.getAggregateId() == aggregateId).toList();
+        }
+
+        private List<String> payloads(long aggregateId) {
+            return events(aggregateId).stream().map(OutboxEvent::getPayload).toList();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+    private static final Duration TICK = Duration.ofMillis(100);
+    private static final int SIZE = 8;
+
+    @Test
+    void keepsDeadlinesBeyondOneRevolutionUntilTheirRound() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        wheel.schedule("near", "near", 300);
+        wheel.schedule("far", "far", 300 + 3 * SIZE * 100);
+
+        assertThat(wheel.advance(300)).containsExactly("near");
+        for (long now = 400; now < 300 + 3 * SIZE * 100; now += 100) {
+            assertThat(wheel.advance(now)).isEmpty();
+        }
+        assertThat(wheel.advance(300 + 3 * SIZE * 100)).containsExactly("far");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void catchesUpAfterPauseLongerThanRevolution() {
+        TimingWheel<Integer, Integer> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        for (int i = 1; i <= 40; i++) {
+            wheel.schedule(i, i, i * 100L);
+        }
+
+        assertThat(wheel.advance(2500)).containsExactlyInAnyOrderElementsOf(range(1, 25));
+        assertThat(wheel.advance(2600)).containsExactly(26);
+        assertThat(wheel.advance(10_000)).containsExactlyInAnyOrderElementsOf(range(27, 40));
+    }
+
+    @Test
+    void replacesAndCancelsByKey() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        wheel.schedule("a", "first", 200);
+        wheel.schedule("a", "second", 2000);
+        wheel.schedule("b", "b", 200);
+
+        assertThat(wheel.cancel("b")).isTrue();
+        assertThat(wheel.cancel("b")).isFalse();
+        assertThat(wheel.advance(1900)).isEmpty();
+        assertThat(wheel.advance(2000)).containsExactly("second");
+    }
+
+    @Test
+    void firesOverdueDeadlineOnNextTick() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, SIZE, 1000);
+        wheel.schedule("late", "late", 0);
+
+        assertThat(wheel.advance(1000)).isEmpty();
+        assertThat(wheel.advance(1100)).containsExactly("late");
+    }
+
+    @Test
+    void matchesSortedDeadlinesUnderRandomSchedule() {
+        Random random = new Random(7);
+        TimingWheel<Integer, Integer> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        TreeMap<Integer, Long> expected = new TreeMap<>();
+        long now = 0;
+        for (int step = 0; step < 5000; step++) {
+            if (random.nextInt(3) == 0) {
+                now += random.nextInt(random.nextInt(10) == 0 ? 5000 : 300);
+                List<Integer> fired = wheel.advance(now);
+                long tick = now / 100;
+                List<Integer> due = new ArrayList<>();
+                expected.forEach((key, deadline) -> {
+                    if (Math.max((deadline + 99) / 100, 1) <= tick) {
+                        due.add(key);
+                    }
+                });
+                due.forEach(expected::remove);
+                assertThat(fired).containsExactlyInAnyOrderElementsOf(due);
+            } else {
+                int key = random.nextInt(200);
+                long deadline = now + random.nextInt(50 * SIZE * 100);
+                wheel.schedule(key, key, deadline);
+                expected.put(key, Math.max(deadline, (now / 100 + 1) * 100));
+            }
+            assertThat(wheel.size()).isEqualTo(expected.size());
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.user.deletion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDeletionEndpointTest {
+    @Test
+    void reportsPendingCountWithBoundedSample() {
+        UserDeletionJob userDeletionJob = mock(UserDeletionJob.class);
+        List<Long> sample = LongStream.rangeClosed(1, 100).boxed().toList();
+        when(userDeletionJob.pendingCount()).thenReturn(250_000L);
+        when(userDeletionJob.pending(anyInt())).thenReturn(sample);
+        when(userDeletionJob.active()).thenReturn(List.of());
+        when(userDeletionJob.finished()).thenReturn(List.of());
+
+        Map<String, Object> deletions = new UserDeletionEndpoint(userDeletionJob).deletions();
+
+        assertThat(deletions.get("pending")).isEqualTo(Map.of("count", 250_000L, "sample", sample));
+        verify(userDeletionJob).pending(100);
+    }
+}
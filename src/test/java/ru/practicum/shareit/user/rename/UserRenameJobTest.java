@@ -0,0 +1,79 @@
+package ru.practicum.shareit.user.rename;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.summary.service.ItemSummaryService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserRenameJobTest {
+    private CommentRepository commentRepository;
+    private ItemSummaryService itemSummaryService;
+    private UserRenameJob userRenameJob;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        itemSummaryService = mock(ItemSummaryService.class);
+        userRenameJob = new UserRenameJob(commentRepository, itemSummaryService,
+                new TaskExecutorAdapter(Runnable::run), 2);
+        when(commentRepository.findItemIdsByAuthorId(7L, 0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(commentRepository.findItemIdsByAuthorId(7L, 2L, Limit.of(2))).thenReturn(List.of(3L));
+    }
+
+    @Test
+    void rebuildsCommentedItemsInPages() {
+        userRenameJob.requested(7);
+
+        verify(itemSummaryService).rebuild(List.of(1L, 2L));
+        verify(itemSummaryService).rebuild(List.of(3L));
+    }
+
+    @Test
+    void startsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userRenameJob.requested(7);
+            verifyNoInteractions(commentRepository, itemSummaryService);
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(itemSummaryService).rebuild(List.of(3L));
+    }
+
+    @Test
+    void retriesFailedRenameOnNextRun() {
+        doThrow(new IllegalStateException("база недоступна")).doNothing()
+                .when(itemSummaryService).rebuild(List.of(1L, 2L));
+
+        userRenameJob.requested(7);
+        verify(commentRepository, never()).findItemIdsByAuthorId(eq(7L), eq(2L), eq(Limit.of(2)));
+
+        userRenameJob.trigger();
+
+        verify(itemSummaryService, times(2)).rebuild(List.of(1L, 2L));
+        verify(itemSummaryService).rebuild(List.of(3L));
+
+        userRenameJob.trigger();
+
+        verify(commentRepository, times(3)).findItemIdsByAuthorId(eq(7L), anyLong(), eq(Limit.of(2)));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.user.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Повторный прогон schema.sql при старте не возвращает нормализованный email помеченному на удаление
+ * пользователю, даже если этот email уже занял новый пользователь, а адреса, совпадающие после
+ * нормализации, не мешают созданию уникального индекса.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class UserSchemaTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void schemaRerunKeepsDeletedUserEmailFree() {
+        String email = "reuse" + System.nanoTime() + "@schema.ru";
+        User deleted = userRepository.save(User.builder().name("gone").email(email.toUpperCase()).build());
+        Integer marked = new TransactionTemplate(transactionManager).execute(status ->
+                userRepository.markDeleted(deleted.getId()));
+        assertThat(marked).isEqualTo(1);
+        User reused = userRepository.save(User.builder().name("new").email(email).build());
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        assertThat(userRepository.findById(deleted.getId()).orElseThrow().getEmailNormalized()).isNull();
+        assertThat(userRepository.findById(reused.getId()).orElseThrow().getEmailNormalized()).isEqualTo(email);
+    }
+
+    @Test
+    void schemaRerunRecordsCaseVariantEmailsInsteadOfFailing() {
+        String email = "variant" + System.nanoTime() + "@schema.ru";
+        User first = userRepository.save(User.builder().name("first").email(email.toUpperCase()).build());
+        jdbcTemplate.update("UPDATE users SET email_normalized = NULL WHERE id = ?", first.getId());
+        User second = userRepository.save(User.builder().name("second").email(email).build());
+        jdbcTemplate.update("UPDATE users SET email_normalized = NULL WHERE id = ?", second.getId());
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        assertThat(userRepository.findById(first.getId()).orElseThrow().getEmailNormalized()).isEqualTo(email);
+        assertThat(userRepository.findById(second.getId()).orElseThrow().getEmailNormalized()).isNull();
+        assertThat(jdbcTemplate.queryForList("SELECT kept_user_id FROM user_email_conflicts WHERE user_id = ?",
+                Long.class, second.getId())).containsExactly(first.getId());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Страницы GET /users и выгрузка идут по возрастанию id после курсора и не содержат удалённых
+ * пользователей. Сравниваются только пользователи этого теста, созданные последними.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class UserPagingTest {
+    private static final int USERS = 5;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> active = new ArrayList<>();
+    private long before;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        for (int i = 0; i < USERS; i++) {
+            active.add(userService.create(UserCreateDto.builder().name("user " + i)
+                    .email("user" + i + "-" + suffix + "@paging.ru").build()).getId());
+        }
+        before = active.get(0) - 1;
+        userService.delete(active.remove(2));
+    }
+
+    @Test
+    void pagesActiveUsersByIdCursor() {
+        List<Long> seen = new ArrayList<>();
+        Long after = before;
+        do {
+            UserPageDto page = userService.getAll(after, 3);
+            assertThat(page.getUsers()).hasSizeLessThanOrEqualTo(3);
+            seen.addAll(page.getUsers().stream().map(UserDto::getId).toList());
+            after = page.getNextCursor() == null ? null : Long.parseLong(page.getNextCursor());
+        } while (after != null);
+
+        assertThat(seen).isEqualTo(active);
+    }
+
+    @Test
+    void exportsActiveUsersAfterCursorAsNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userService.exportAll(active.get(0)).writeTo(out);
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).lines().toList()) {
+            exported.add(objectMapper.readValue(line, UserDto.class).getId());
+        }
+        assertThat(exported).isEqualTo(active.subList(1, active.size()));
+    }
+
+    @Test
+    void rejectsNonPositivePageSize() {
+        assertThatThrownBy(() -> userService.getAll(before, 0)).isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserResolverTest {
+    private UserRepository userRepository;
+    private UserResolver userResolver;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userResolver = new UserResolver(userRepository, Duration.ofMinutes(1), 2);
+        for (long id = 1; id <= 3; id++) {
+            when(userRepository.findByIdAndDeletedFalse(id)).thenReturn(Optional.of(user(id, "user " + id)));
+        }
+    }
+
+    @Test
+    void servesRepeatedLookupsFromCache() {
+        userResolver.require(1);
+        userResolver.require(1);
+
+        verify(userRepository, times(1)).findByIdAndDeletedFalse(1L);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        userResolver.require(1);
+        userResolver.require(2);
+        userResolver.require(1);
+        userResolver.require(3);
+
+        userResolver.require(1);
+        userResolver.require(2);
+
+        verify(userRepository, times(1)).findByIdAndDeletedFalse(1L);
+        verify(userRepository, times(2)).findByIdAndDeletedFalse(2L);
+    }
+
+    @Test
+    void seesUpdateAfterEvict() {
+        assertThat(userResolver.require(1).getName()).isEqualTo("user 1");
+        when(userRepository.findByIdAndDeletedFalse(1L)).thenReturn(Optional.of(user(1, "renamed")));
+
+        userResolver.evict(1);
+
+        assertThat(userResolver.require(1).getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    void seesDeleteAfterEvict() {
+        userResolver.require(1);
+        when(userRepository.findByIdAndDeletedFalse(1L)).thenReturn(Optional.empty());
+
+        userResolver.evict(1);
+
+        assertThatThrownBy(() -> userResolver.require(1)).isInstanceOf(NotFoundException.class);
+        assertThat(userResolver.exists(1)).isFalse();
+    }
+
+    @Test
+    void doesNotCacheLoadThatRacedWithEvict() {
+        when(userRepository.findByIdAndDeletedFalse(1L)).thenAnswer(invocation -> {
+            userResolver.evict(1);
+            return Optional.of(user(1, "before update"));
+        }).thenReturn(Optional.of(user(1, "after update")));
+
+        assertThat(userResolver.require(1).getName()).isEqualTo("before update");
+
+        assertThat(userResolver.require(1).getName()).isEqualTo("after update");
+    }
+
+    private static User user(long id, String name) {
+        return User.builder().id(id).name(name).email("user" + id + "@resolver.ru").build();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Адрес, отличающийся от занятого только регистром, отклоняется уникальным индексом, даже когда
+ * фильтр адресов о нём не знает. Прочие нарушения целостности не выдаются за занятый адрес.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class UserServiceEmailConflictTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        email = "taken" + System.nanoTime() + "@conflict.ru";
+        userRepository.save(User.builder().name("owner").email(email).build());
+    }
+
+    @Test
+    void createRejectsCaseVariantOfTakenEmail() {
+        UserCreateDto user = UserCreateDto.builder().name("copy").email(" " + email.toUpperCase() + " ").build();
+
+        assertThatThrownBy(() -> userService.create(user)).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void updateRejectsCaseVariantOfTakenEmail() {
+        UserDto other = userService.create(UserCreateDto.builder().name("other")
+                .email("other" + System.nanoTime() + "@conflict.ru").build());
+
+        assertThatThrownBy(() -> userService.update(UserUpdateDto.builder().id(other.getId())
+                .email(email.toUpperCase()).build()))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void keepsOtherIntegrityViolations() {
+        UserCreateDto user = UserCreateDto.builder().name("n".repeat(150))
+                .email("long" + System.nanoTime() + "@conflict.ru").build();
+
+        assertThatThrownBy(() -> userService.create(user))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}